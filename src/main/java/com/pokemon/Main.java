@@ -1,20 +1,115 @@
 package com.pokemon;
 
-import com.pokemon.game.GameFrame;
+import com.pokemon.game.GameHost;
+import com.pokemon.game.entity.Player;
+import com.pokemon.game.input.InputReplay;
+import com.pokemon.game.state.BattleState;
+import com.pokemon.game.state.GameStateManager;
+import com.pokemon.game.state.PlayState;
+import com.pokemon.game.util.AssetPreloader;
 import com.pokemon.game.util.ImageCreator;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * 口袋妖怪绿宝石游戏主入口
+ * 
+ * 参数:
+ *   --backend=swing|active|headless  渲染后端，默认swing
+ *   --ticks=N                        运行N个逻辑步后退出（无显示后端时常用）
+ *   --record=文件                    把本局的按键录制到文件
+ *   --replay=文件                    以最快速度回放按键录像后退出，默认使用无显示后端
  */
 public class Main {
     public static void main(String[] args) {
+        String backendName = null;
+        long ticks = 0;
+        String recordPath = null;
+        String replayPath = null;
+        for (String arg : args) {
+            if (arg.startsWith("--backend=")) {
+                backendName = arg.substring("--backend=".length());
+            } else if (arg.startsWith("--ticks=")) {
+                ticks = Long.parseLong(arg.substring("--ticks=".length()));
+            } else if (arg.startsWith("--record=")) {
+                recordPath = arg.substring("--record=".length());
+            } else if (arg.startsWith("--replay=")) {
+                replayPath = arg.substring("--replay=".length());
+            }
+        }
+        if (backendName == null) {
+            backendName = replayPath != null ? "headless" : "swing";
+        }
+        
+        // 无显示后端必须在任何AWT类初始化之前打开headless模式
+        if ("headless".equalsIgnoreCase(backendName)) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        
         // 首先创建必要的图片资源
         System.out.println("正在初始化游戏资源...");
 //        ImageCreator.createMissingImages();
         
+        // 在后台并行预加载清单中的资源，菜单会显示进度
+        AssetPreloader preloader = AssetPreloader.fromManifest(AssetPreloader.DEFAULT_MANIFEST);
+        preloader.start();
+        
         // 启动游戏
         System.out.println("启动游戏...");
-        GameFrame gameFrame = new GameFrame();
-        gameFrame.start();
+        GameHost host = new GameHost(GameHost.createBackend(backendName));
+        host.setPreloader(preloader);
+        if (replayPath != null) {
+            replay(host, preloader, new File(replayPath));
+        } else if (ticks > 0) {
+            preloader.awaitCompletion();
+            long start = System.nanoTime();
+            host.runFor(ticks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("运行了%d个逻辑步，耗时%.2f秒（%.0f步/秒）%n", host.getTicks(), seconds, host.getTicks() / seconds);
+            System.exit(0);
+        } else {
+            if (recordPath != null) {
+                // 菜单在资源加载完成前不响应回车，录制前先等待加载完成，回放时才不会受加载快慢影响
+                preloader.awaitCompletion();
+                host.record(new File(recordPath));
+            }
+            host.start();
+        }
+    }
+    
+    /**
+     * 回放按键录像，输出耗时和结束时的状态，便于对比两次运行是否一致
+     */
+    private static void replay(GameHost host, AssetPreloader preloader, File file) {
+        InputReplay replay;
+        try {
+            replay = InputReplay.load(file);
+        } catch (IOException e) {
+            System.err.println("无法读取按键录像: " + file + " - " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.printf("回放%s: 种子%d，战斗速度%s，%d个逻辑步，%d个按键事件%n", file, replay.getSeed(),
+                replay.getBattleSpeed(), replay.getTotalTicks(), replay.getEventCount());
+        
+        preloader.awaitCompletion();
+        long start = System.nanoTime();
+        host.replay(replay);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("回放结束，耗时%.2f秒（%.0f步/秒）%n", seconds, host.getTicks() / seconds);
+        
+        GameStateManager gsm = host.getGameStateManager();
+        PlayState play = gsm.isCreated(GameStateManager.PLAY_STATE)
+                ? (PlayState) gsm.getGameState(GameStateManager.PLAY_STATE) : null;
+        Player player = play != null ? play.getPlayer() : null;
+        int encounters = gsm.isCreated(GameStateManager.BATTLE_STATE)
+                ? ((BattleState) gsm.getGameState(GameStateManager.BATTLE_STATE)).getEncounters() : 0;
+        System.out.printf("结束状态: %d，地图%s，玩家位置(%s)，战斗%d场%n", gsm.getCurrentState(),
+                player != null ? play.getGameMap().getMapName() : "-",
+                player != null ? player.getX() + "," + player.getY() : "-", encounters);
+        System.out.printf("状态切换%d次，平均 %.2f 毫秒，最长 %.2f 毫秒%n", gsm.getTransitionCount(),
+                gsm.getAverageTransitionMillis(), gsm.getMaxTransitionMillis());
+        System.exit(0);
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,316 @@
+package com.pokemon.game;
+
+import com.pokemon.game.battle.BattleSpeed;
+import com.pokemon.game.input.InputQueue;
+import com.pokemon.game.input.InputRecorder;
+import com.pokemon.game.input.InputReplay;
+import com.pokemon.game.map.GameMap;
+import com.pokemon.game.render.BufferStrategyBackend;
+import com.pokemon.game.render.HeadlessBackend;
+import com.pokemon.game.render.RenderBackend;
+import com.pokemon.game.render.SwingPassiveBackend;
+import com.pokemon.game.state.GameStateManager;
+import com.pokemon.game.util.AssetPreloader;
+import com.pokemon.game.util.GameRandom;
+import com.pokemon.game.util.KeyHandler;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * 游戏宿主，负责游戏循环，并通过可替换的渲染后端绘制画面
+ * 支持Swing被动渲染、BufferStrategy主动渲染和无显示三种后端
+ */
+public class GameHost implements Runnable {
+
+    // 画面默认尺寸
+    public static final int WIDTH = 320;
+    public static final int HEIGHT = 320;
+    public static final String TITLE = "口袋妖怪绿宝石";
+
+    // 游戏FPS
+    private static final int FPS = 60;
+
+    private final RenderBackend backend;
+
+    // 游戏循环相关
+    private Thread gameThread;
+    private GameLoop gameLoop;
+    private long ticks;
+    private long maxTicks;
+
+    // 游戏状态管理器
+    private GameStateManager gsm;
+    private KeyHandler keyHandler;
+    private final InputQueue inputQueue = new InputQueue();
+
+    // 按键录像，录制时把每步的按键写入文件，回放时代替键盘输入，都可以为null
+    private File recordFile;
+    private InputRecorder recorder;
+    private InputReplay replay;
+
+    // 当前地图
+    private GameMap currentMap;
+
+    // 启动时的资源预加载器，可以为null
+    private AssetPreloader preloader;
+
+    // 渲染回调，避免每帧创建lambda
+    private double renderAlpha;
+    private final Consumer<Graphics2D> frameRenderer = g -> gsm.render(g, renderAlpha);
+
+    /**
+     * 创建游戏宿主
+     *
+     * @param backend 渲染后端
+     */
+    public GameHost(RenderBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * 按名称创建渲染后端
+     *
+     * @param name swing（被动渲染）、active（BufferStrategy主动渲染）或headless（无显示）
+     * @return 渲染后端
+     */
+    public static RenderBackend createBackend(String name) {
+        switch (name.toLowerCase()) {
+            case "active":
+                return new BufferStrategyBackend();
+            case "headless":
+                return new HeadlessBackend();
+            case "swing":
+                return new SwingPassiveBackend();
+            default:
+                throw new IllegalArgumentException("未知的渲染后端: " + name);
+        }
+    }
+
+    private void init() {
+        backend.open(TITLE, WIDTH, HEIGHT);
+
+        keyHandler = new KeyHandler(inputQueue);
+        backend.addKeyListener(keyHandler);
+        backend.addWindowFocusListener(keyHandler);
+
+        if (replay != null) {
+            // 回放使用录像中的种子和战斗速度，保证每一步的结果与录制时相同
+            gsm = new GameStateManager(this, new GameRandom(replay.getSeed()));
+            BattleSpeed speed = BattleSpeed.parse(replay.getBattleSpeed());
+            if (speed != null) {
+                gsm.setBattleSpeed(speed);
+            }
+        } else {
+            gsm = new GameStateManager(this);
+            if (recordFile != null) {
+                openRecorder();
+            } else {
+                // 录制和回放时切换必须在固定的步内完成，只有普通游戏时才在后台准备资源
+                gsm.setAsyncTransitions(true);
+            }
+        }
+
+        GameLoop.Listener listener = new GameLoop.Listener() {
+            @Override
+            public void update() {
+                GameHost.this.update();
+            }
+
+            @Override
+            public void render(double alpha) {
+                GameHost.this.render(alpha);
+            }
+        };
+
+        // 无显示后端不需要按真实时间限速
+        gameLoop = backend.isHeadless() ? GameLoop.uncapped(listener) : new GameLoop(listener, FPS);
+    }
+
+    /**
+     * 在新的游戏线程中启动
+     */
+    public void start() {
+        init();
+        gameThread = new Thread(this, "GameThread");
+        gameThread.start();
+    }
+
+    /**
+     * 在当前线程中运行指定的逻辑步数后返回，用于无显示的模拟和测试
+     *
+     * @param ticks 逻辑步数
+     */
+    public void runFor(long ticks) {
+        this.maxTicks = ticks;
+        init();
+        run();
+        closeRecorder();
+    }
+
+    /**
+     * 回放按键录像，在当前线程中运行到录像结束后返回，没有逻辑步的录像直接返回
+     *
+     * @param replay 录像
+     */
+    public void replay(InputReplay replay) {
+        if (replay.getTotalTicks() <= 0) {
+            return;
+        }
+        this.replay = replay;
+        runFor(replay.getTotalTicks());
+    }
+
+    /**
+     * 把本局的按键录制到文件，需要在启动之前调用
+     *
+     * @param file 录像文件
+     */
+    public void record(File file) {
+        this.recordFile = file;
+    }
+
+    private void openRecorder() {
+        try {
+            recorder = new InputRecorder(recordFile, gsm.getRandom().getSeed(), gsm.getBattleSpeed().getLabel());
+        } catch (IOException e) {
+            System.err.println("无法创建按键录像: " + recordFile + " - " + e.getMessage());
+            return;
+        }
+        // 关闭窗口或从菜单退出时直接结束进程，在关闭钩子中写入结尾
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeRecorder, "InputRecorderShutdown"));
+        System.out.println("正在录制按键: " + recordFile);
+    }
+
+    private void closeRecorder() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    @Override
+    public void run() {
+        gameLoop.run();
+    }
+
+    private void update() {
+        // 每步开始时取出AWT线程放入的按键事件，回放时改用录像中这一步的事件
+        if (replay != null) {
+            replay.apply(ticks, gsm.getInput());
+        } else {
+            if (recorder != null) {
+                recorder.beginTick(ticks);
+            }
+            inputQueue.drain(gsm.getInput(), recorder);
+        }
+        gsm.update();
+        ticks++;
+
+        // 每秒在标题上显示一次FPS
+        if (!backend.isHeadless() && ticks % FPS == 0) {
+            backend.setTitle(TITLE + " - FPS: " + gameLoop.getFps());
+        }
+
+        if (maxTicks > 0 && ticks >= maxTicks) {
+            gameLoop.stop();
+        }
+    }
+
+    private void render(double alpha) {
+        renderAlpha = alpha;
+        backend.present(frameRenderer);
+    }
+
+    /**
+     * 设置当前地图并根据地图大小调整画面（仅支持调整的后端生效）
+     *
+     * @param map 游戏地图
+     */
+    public void setCurrentMap(GameMap map) {
+        this.currentMap = map;
+
+        if (map == null || backend.isHeadless() || GraphicsEnvironment.isHeadless()) {
+            return;
+        }
+
+        // 窗口大小不要超过屏幕分辨率的80%
+        Rectangle bounds = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        int maxWidth = (int) (bounds.getWidth() * 0.8);
+        int maxHeight = (int) (bounds.getHeight() * 0.8);
+
+        // 确保窗口大小不小于默认值，也不大于屏幕的80%
+        int width = Math.max(WIDTH, Math.min(map.getMapWidth(), maxWidth));
+        int height = Math.max(HEIGHT, Math.min(map.getMapHeight(), maxHeight));
+        backend.resize(width, height);
+    }
+
+    /**
+     * 停止游戏
+     */
+    public void stop() {
+        gameLoop.stop();
+        if (gameThread != null && Thread.currentThread() != gameThread) {
+            try {
+                gameThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        backend.close();
+        closeRecorder();
+    }
+
+    /**
+     * 设置资源预加载器，菜单会显示它的进度
+     *
+     * @param preloader 预加载器
+     */
+    public void setPreloader(AssetPreloader preloader) {
+        this.preloader = preloader;
+    }
+
+    public AssetPreloader getPreloader() {
+        return preloader;
+    }
+
+    public GameStateManager getGameStateManager() {
+        return gsm;
+    }
+
+    public RenderBackend getBackend() {
+        return backend;
+    }
+
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    /**
+     * 获取画面宽度
+     */
+    public int getWidth() {
+        return backend.getWidth();
+    }
+
+    /**
+     * 获取画面高度
+     */
+    public int getHeight() {
+        return backend.getHeight();
+    }
+
+    public GameMap getCurrentMap() {
+        return currentMap;
+    }
+
+    /**
+     * 获取累计执行的逻辑步数
+     */
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,200 @@
+package com.pokemon.game;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 固定时间步长的游戏循环
+ * 逻辑更新以固定频率执行（累加器），落后时最多追赶若干步；
+ * 渲染与更新解耦，并按当前步内经过的比例进行插值；
+ * 帧间等待使用纳秒精度，不受Thread.sleep毫秒粒度的影响；
+ * 也可以创建不限速的循环，每次迭代执行一步，用于无显示环境下的快速模拟
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * 循环回调
+     */
+    public interface Listener {
+        /**
+         * 执行一步固定时长的逻辑更新
+         */
+        void update();
+
+        /**
+         * 渲染一帧
+         *
+         * @param alpha 当前时间在上一步与下一步之间的比例 (0.0 - 1.0)
+         */
+        void render(double alpha);
+    }
+
+    // 默认逻辑更新频率
+    public static final int DEFAULT_UPS = 60;
+
+    // 一帧内最多追赶的逻辑步数，超出的时间直接丢弃，避免越追越慢
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    // 剩余时间小于该值时不再park，改为让出CPU等待，保证唤醒精度
+    private static final long PARK_THRESHOLD = 2000000L;
+    private static final long PARK_MARGIN = 1000000L;
+
+    private final Listener listener;
+    private final long stepNanos;
+    private final long frameNanos;
+    private final int maxSteps;
+    
+    // 不限速模式：不按时间推进，每次迭代固定执行一步
+    private final boolean uncapped;
+
+    private volatile boolean running = true;
+
+    // 统计信息
+    private volatile int fps;
+    private volatile int ups;
+    private long ticks;
+
+    /**
+     * 创建游戏循环，渲染帧率与更新频率相同
+     *
+     * @param listener 循环回调
+     * @param ups 每秒逻辑更新次数
+     */
+    public GameLoop(Listener listener, int ups) {
+        this(listener, ups, ups, DEFAULT_MAX_STEPS);
+    }
+
+    /**
+     * 创建游戏循环
+     *
+     * @param listener 循环回调
+     * @param ups 每秒逻辑更新次数
+     * @param maxFps 最大渲染帧率，0表示不限制
+     * @param maxSteps 一帧内最多追赶的逻辑步数
+     */
+    public GameLoop(Listener listener, int ups, int maxFps, int maxSteps) {
+        this(listener, ups, maxFps, maxSteps, false);
+    }
+
+    private GameLoop(Listener listener, int ups, int maxFps, int maxSteps, boolean uncapped) {
+        this.listener = listener;
+        this.stepNanos = 1000000000L / ups;
+        this.frameNanos = maxFps > 0 ? 1000000000L / maxFps : 0;
+        this.maxSteps = Math.max(1, maxSteps);
+        this.uncapped = uncapped;
+    }
+
+    /**
+     * 创建不限速的循环：每次迭代执行一步更新并渲染一帧，中间不做任何等待
+     *
+     * @param listener 循环回调
+     * @return 游戏循环
+     */
+    public static GameLoop uncapped(Listener listener) {
+        return new GameLoop(listener, DEFAULT_UPS, 0, 1, true);
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        long statsStart = previous;
+        int frames = 0;
+        int updates = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            // 不限速时视为刚好经过一步
+            if (uncapped) {
+                accumulator = stepNanos;
+            }
+
+            // 按固定步长追赶逻辑时间
+            int steps = 0;
+            while (accumulator >= stepNanos && steps < maxSteps) {
+                listener.update();
+                accumulator -= stepNanos;
+                steps++;
+                ticks++;
+            }
+            updates += steps;
+
+            // 追赶次数用完仍然落后时，丢弃多余的整步，只保留步内余量
+            if (accumulator >= stepNanos) {
+                accumulator %= stepNanos;
+            }
+
+            listener.render(uncapped ? 1.0 : accumulator / (double) stepNanos);
+            frames++;
+
+            if (now - statsStart >= 1000000000L) {
+                fps = frames;
+                ups = updates;
+                frames = 0;
+                updates = 0;
+                statsStart = now;
+            }
+
+            if (frameNanos > 0) {
+                nextFrame += frameNanos;
+                long current = System.nanoTime();
+                // 严重落后时重新对齐，不再尝试补回错过的帧
+                if (nextFrame < current - frameNanos) {
+                    nextFrame = current;
+                }
+                waitUntil(nextFrame);
+            }
+        }
+    }
+
+    /**
+     * 等待到指定的纳秒时刻
+     * 距离较远时park，最后一小段让出CPU自旋，避免sleep的粒度误差
+     */
+    private void waitUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > PARK_THRESHOLD) {
+                LockSupport.parkNanos(remaining - PARK_MARGIN);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * 停止循环，当前帧结束后退出
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 获取最近一秒的渲染帧数
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * 获取最近一秒的逻辑更新次数
+     */
+    public int getUps() {
+        return ups;
+    }
+
+    /**
+     * 获取累计执行的逻辑步数
+     */
+    public long getTicks() {
+        return ticks;
+    }
+}
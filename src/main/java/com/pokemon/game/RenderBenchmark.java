@@ -0,0 +1,147 @@
+package com.pokemon.game;
+
+import com.pokemon.game.util.CompatibleImages;
+import com.pokemon.game.util.ImageLoader;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 渲染基准测试，对比旧的绘制路径与加速路径的每帧耗时
+ * 旧路径：ImageIO原始格式的素材绘制到TYPE_INT_ARGB的BufferedImage
+ * 新路径：兼容格式的素材绘制到VolatileImage（无显示环境时为兼容格式的BufferedImage）
+ * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.RenderBenchmark"
+ */
+public class RenderBenchmark {
+
+    private static final int WARMUP_FRAMES = 300;
+    private static final int MEASURE_FRAMES = 2000;
+
+    private static final String[] SPRITES = {
+        "image/item/balls/poke_ball.png", "image/item/balls/great_ball.png",
+        "image/item/balls/ultra_ball.png", "image/item/balls/master_ball.png",
+        "image/player/player-2.png", "image/pokemon/pikachu_front.png",
+        "image/pokemon/pikachu_back.png", "image/enter_menu/time_window.png"
+    };
+
+    public static void main(String[] args) throws IOException {
+        BufferedImage map = decode("image/map/wei_bai_zhen.png");
+        BufferedImage[] sprites = new BufferedImage[SPRITES.length];
+        for (int i = 0; i < SPRITES.length; i++) {
+            sprites[i] = decode(SPRITES[i]);
+        }
+
+        // 旧路径
+        BufferedImage legacyTarget = new BufferedImage(GameHost.WIDTH, GameHost.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        double legacyMs = measure(new BufferedTarget(legacyTarget), map, sprites);
+        System.out.printf("旧路径 (TYPE_INT_ARGB + 原始格式素材): %.3f ms/帧%n", legacyMs);
+
+        // 新路径
+        BufferedImage compatibleMap = CompatibleImages.toCompatibleImage(map);
+        BufferedImage[] compatibleSprites = new BufferedImage[sprites.length];
+        for (int i = 0; i < sprites.length; i++) {
+            compatibleSprites[i] = CompatibleImages.toCompatibleImage(sprites[i]);
+        }
+
+        VolatileImage volatileImage = CompatibleImages.createVolatileImage(GameHost.WIDTH, GameHost.HEIGHT);
+        Target target;
+        String label;
+        if (volatileImage != null) {
+            target = new VolatileTarget(volatileImage);
+            label = "VolatileImage + 兼容格式素材";
+        } else {
+            target = new BufferedTarget(CompatibleImages.createCompatibleImage(
+                    GameHost.WIDTH, GameHost.HEIGHT, Transparency.OPAQUE));
+            label = "无显示环境，兼容格式BufferedImage + 兼容格式素材";
+        }
+        double acceleratedMs = measure(target, compatibleMap, compatibleSprites);
+        System.out.printf("新路径 (%s): %.3f ms/帧%n", label, acceleratedMs);
+        System.out.printf("加速 %.2fx%n", legacyMs / Math.max(acceleratedMs, 0.0001));
+    }
+
+    /**
+     * 直接用ImageIO解码，不做任何格式转换
+     */
+    private static BufferedImage decode(String path) throws IOException {
+        try (InputStream stream = ImageLoader.openResourceStream(path)) {
+            if (stream == null) {
+                throw new IOException("图片资源不存在: " + path);
+            }
+            return ImageIO.read(stream);
+        }
+    }
+
+    private static double measure(Target target, BufferedImage map, BufferedImage[] sprites) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            target.renderFrame(map, sprites, i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_FRAMES; i++) {
+            target.renderFrame(map, sprites, i);
+        }
+        return (System.nanoTime() - start) / 1000000.0 / MEASURE_FRAMES;
+    }
+
+    /**
+     * 绘制一帧与PlayState/BattleState相近的画面：整屏地图加若干精灵
+     */
+    private static void drawScene(Graphics2D g, BufferedImage map, BufferedImage[] sprites, int frame) {
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, GameHost.WIDTH, GameHost.HEIGHT);
+        g.drawImage(map, 0, 0, null);
+        for (int i = 0; i < sprites.length; i++) {
+            int x = (frame * 3 + i * 37) % GameHost.WIDTH;
+            int y = (i * 41) % GameHost.HEIGHT;
+            g.drawImage(sprites[i], x, y, null);
+        }
+    }
+
+    private interface Target {
+        void renderFrame(BufferedImage map, BufferedImage[] sprites, int frame);
+    }
+
+    private static class BufferedTarget implements Target {
+        private final BufferedImage image;
+
+        BufferedTarget(BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public void renderFrame(BufferedImage map, BufferedImage[] sprites, int frame) {
+            Graphics2D g = image.createGraphics();
+            drawScene(g, map, sprites, frame);
+            g.dispose();
+        }
+    }
+
+    private static class VolatileTarget implements Target {
+        private VolatileImage image;
+
+        VolatileTarget(VolatileImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public void renderFrame(BufferedImage map, BufferedImage[] sprites, int frame) {
+            do {
+                if (image.validate(CompatibleImages.getConfiguration()) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    image = CompatibleImages.createVolatileImage(GameHost.WIDTH, GameHost.HEIGHT);
+                }
+                Graphics2D g = image.createGraphics();
+                drawScene(g, map, sprites, frame);
+                g.dispose();
+            } while (image.contentsLost());
+            // 等待显卡完成绘制，避免只测到提交命令的时间
+            Toolkit.getDefaultToolkit().sync();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.pokemon.game.battle;
+
+import com.pokemon.game.data.GameDatabase;
+import com.pokemon.game.util.ImageLoader;
+import com.pokemon.game.util.TextureAtlas;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 道具表中各种精灵球的图片
+ * 只读取图片，不涉及随机数和战斗逻辑，可以在工作线程中创建
+ */
+public class BallImages {
+    
+    private final GameDatabase database;
+    
+    // 精灵球图片
+    private Map<String, BufferedImage> pokeBallImages;
+    
+    public BallImages() {
+        database = GameDatabase.get();
+        loadBallImages();
+    }
+    
+    /**
+     * 加载精灵球图片，优先从道具图集中取，图集不可用时逐个加载
+     */
+    private void loadBallImages() {
+        pokeBallImages = new HashMap<>();
+        TextureAtlas atlas = TextureAtlas.get(TextureAtlas.ITEMS);
+        
+        // 加载道具表中各种精灵球的图片
+        for (int item = 0; item < database.getItemCount(); item++) {
+            if (database.getItemCategory(item) != GameDatabase.CATEGORY_BALL) {
+                continue;
+            }
+            String ballType = database.getItemKey(item);
+            // 路径不要以/开头
+            String path = "image/item/balls/" + ballType + ".png";
+            BufferedImage ballImage = atlas != null ? atlas.getImage(path) : null;
+            if (ballImage == null) {
+                ballImage = ImageLoader.loadImage(path);
+            }
+            if (ballImage != null) {
+                pokeBallImages.put(ballType, ballImage);
+            } else {
+                System.err.println("无法加载精灵球图片: " + ballType);
+                // 创建占位图像
+                pokeBallImages.put(ballType, createBallPlaceholder(ballType));
+            }
+        }
+    }
+    
+    /**
+     * 创建精灵球占位图像
+     */
+    private BufferedImage createBallPlaceholder(String ballType) {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        
+        // 根据球类型选择不同颜色
+        Color ballColor;
+        switch (ballType) {
+            case "great_ball": 
+                ballColor = new Color(0, 0, 200); // 蓝色
+                break;
+            case "ultra_ball": 
+                ballColor = new Color(250, 250, 0); // 黄色
+                break;
+            case "master_ball": 
+                ballColor = new Color(150, 0, 150); // 紫色
+                break;
+            default: 
+                ballColor = new Color(200, 0, 0); // 红色(普通精灵球)
+        }
+        
+        // 绘制球体
+        g.setColor(ballColor);
+        g.fillOval(2, 2, 28, 28);
+        g.setColor(Color.WHITE);
+        g.fillOval(10, 10, 12, 12);
+        g.setColor(Color.BLACK);
+        g.drawOval(2, 2, 28, 28);
+        g.drawLine(2, 16, 30, 16);
+        
+        g.dispose();
+        return image;
+    }
+    
+    /**
+     * 获取精灵球图片
+     * 
+     * @param ballType 精灵球类型
+     * @return 精灵球图片
+     */
+    public BufferedImage getBallImage(String ballType) {
+        return pokeBallImages.getOrDefault(ballType, pokeBallImages.get("poke_ball"));
+    }
+}
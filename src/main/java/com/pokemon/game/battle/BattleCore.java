@@ -0,0 +1,441 @@
+package com.pokemon.game.battle;
+
+import com.pokemon.game.data.GameDatabase;
+import com.pokemon.game.entity.Pokemon;
+
+import java.util.Arrays;
+
+/**
+ * 战斗核心：不依赖界面的战斗计算
+ * 参战宝可梦的数值按列存放在基本类型数组中（下标即槽位），伤害、命中和捕获都是纯函数，
+ * 随机数由调用方传入。战斗过程只记录整数事件码，文字在需要显示时才格式化，
+ * 因此一回合的计算不分配对象，适合大量模拟
+ */
+public class BattleCore {
+
+    // 约定的槽位
+    public static final int PLAYER = 0;
+    public static final int ENEMY = 1;
+
+    // 事件码
+    public static final int EVENT_APPEARED = 1;    // 参数: 槽位
+    public static final int EVENT_MOVE = 2;        // 参数: 槽位, 招式
+    public static final int EVENT_MISS = 3;        // 参数: 槽位
+    public static final int EVENT_DAMAGE = 4;      // 参数: 目标槽位, 伤害值
+    public static final int EVENT_FAINTED = 5;     // 参数: 槽位
+    public static final int EVENT_BALL_THROWN = 6; // 参数: 目标槽位, 道具
+    public static final int EVENT_CAPTURED = 7;    // 参数: 目标槽位, 道具
+    public static final int EVENT_BROKE_FREE = 8;  // 参数: 目标槽位, 道具
+    public static final int EVENT_ITEM_USED = 9;   // 参数: 槽位, 道具
+    public static final int EVENT_FLED = 10;       // 参数: 槽位
+    public static final int EVENT_PROMPT = 11;     // 等待玩家选择行动
+
+    private final GameDatabase database;
+
+    // 参战宝可梦（按槽位）
+    private int count;
+    private int[] species;
+    private int[] level;
+    private int[] hp;
+    private int[] maxHp;
+    private int[] attack;
+    private int[] defense;
+    private int[] move;
+
+    // 事件记录
+    private int eventCount;
+    private int[] eventCode;
+    private int[] eventArg0;
+    private int[] eventArg1;
+
+    /**
+     * 创建战斗核心
+     *
+     * @param database 游戏数据库
+     * @param capacity 初始槽位数
+     */
+    public BattleCore(GameDatabase database, int capacity) {
+        this.database = database;
+        int slots = Math.max(2, capacity);
+        species = new int[slots];
+        level = new int[slots];
+        hp = new int[slots];
+        maxHp = new int[slots];
+        attack = new int[slots];
+        defense = new int[slots];
+        move = new int[slots];
+        eventCode = new int[16];
+        eventArg0 = new int[16];
+        eventArg1 = new int[16];
+    }
+
+    /**
+     * 清空参战宝可梦和事件，开始新的战斗
+     */
+    public void reset() {
+        count = 0;
+        eventCount = 0;
+    }
+
+    /**
+     * 加入一只宝可梦，数值复制自宝可梦对象
+     *
+     * @return 槽位
+     */
+    public int add(Pokemon pokemon) {
+        return add(pokemon.getSpecies().getId(), pokemon.getLevel(), pokemon.getHp(), pokemon.getMaxHp(),
+                pokemon.getAttack(), pokemon.getDefense(), pokemon.getMove());
+    }
+
+    /**
+     * 加入一只满HP、数值为种类基础值的宝可梦
+     *
+     * @return 槽位
+     */
+    public int add(int speciesId, int lv) {
+        int baseHp = database.getBaseHp(speciesId);
+        return add(speciesId, lv, baseHp, baseHp, database.getBaseAttack(speciesId),
+                database.getBaseDefense(speciesId), database.getSpeciesMove(speciesId));
+    }
+
+    /**
+     * 加入一只宝可梦
+     *
+     * @return 槽位
+     */
+    public int add(int speciesId, int lv, int currentHp, int maximumHp, int atk, int def, int moveId) {
+        if (count == species.length) {
+            int slots = count * 2;
+            species = Arrays.copyOf(species, slots);
+            level = Arrays.copyOf(level, slots);
+            hp = Arrays.copyOf(hp, slots);
+            maxHp = Arrays.copyOf(maxHp, slots);
+            attack = Arrays.copyOf(attack, slots);
+            defense = Arrays.copyOf(defense, slots);
+            move = Arrays.copyOf(move, slots);
+        }
+        int slot = count++;
+        species[slot] = speciesId;
+        level[slot] = lv;
+        hp[slot] = currentHp;
+        maxHp[slot] = maximumHp;
+        attack[slot] = atk;
+        defense[slot] = def;
+        move[slot] = moveId;
+        return slot;
+    }
+
+    /**
+     * 把槽位的HP写回宝可梦对象
+     */
+    public void store(int slot, Pokemon pokemon) {
+        int diff = hp[slot] - pokemon.getHp();
+        if (diff > 0) {
+            pokemon.heal(diff);
+        } else if (diff < 0) {
+            pokemon.takeDamage(-diff);
+        }
+    }
+
+    // ---- 纯函数 ----
+
+    /**
+     * 计算伤害：(攻击力 * 等级 * 威力 / 400 - 防御力) * (0.8 ~ 1.2)，最小为1
+     * 威力40的招式即为 攻击力 * 等级 / 10 - 防御力
+     *
+     * @param atk 攻击方攻击力
+     * @param lv 攻击方等级
+     * @param power 招式威力
+     * @param def 防御方防御力
+     * @param roll 0到1之间的随机数，决定伤害浮动
+     * @return 伤害值
+     */
+    public static int damage(int atk, int lv, int power, int def, double roll) {
+        int baseDamage = (atk * lv * power / 400) - def;
+        double multiplier = 0.8 + (roll * 0.4);
+        return Math.max(1, (int) (baseDamage * multiplier));
+    }
+
+    /**
+     * 判断招式是否命中
+     *
+     * @param accuracy 命中率（百分比）
+     * @param roll 0到1之间的随机数
+     */
+    public static boolean hits(int accuracy, double roll) {
+        return accuracy >= 100 || roll * 100 < accuracy;
+    }
+
+    /**
+     * 计算捕获成功率：HP越低、等级越低越容易捕获，再乘以精灵球加成
+     *
+     * @param currentHp 当前HP
+     * @param maximumHp 最大HP
+     * @param lv 等级
+     * @param captureMode 精灵球的捕获方式（GameDatabase.CAPTURE_*）
+     * @param bonus 精灵球加成
+     * @return 捕获成功率 (0.0 - 1.0)
+     */
+    public static double captureRate(int currentHp, int maximumHp, int lv, int captureMode, double bonus) {
+        // HP越低，捕获率越高
+        double hpRate = currentHp / (double) maximumHp;
+
+        // 等级越高，捕获率越低
+        double levelFactor = 1.0 - (lv / 100.0);
+
+        // 基础成功率
+        double baseRate = (1 - hpRate) * levelFactor * 0.75;
+
+        double ballBonus = 1.0;
+        switch (captureMode) {
+            case GameDatabase.CAPTURE_MULTIPLY:
+                ballBonus = bonus;
+                break;
+            case GameDatabase.CAPTURE_GUARANTEED:
+                return 1.0; // 必定捕获
+            case GameDatabase.CAPTURE_NEST:
+                // 等级越低捕获率越高
+                if (lv <= 30) {
+                    ballBonus = 2.5 - (lv / 15.0);
+                }
+                break;
+            default:
+                break;
+        }
+
+        // 应用球的加成，确保捕获率在合理范围内
+        return Math.max(0.1, Math.min(0.9, baseRate * ballBonus));
+    }
+
+    // ---- 战斗行动 ----
+
+    /**
+     * 用槽位的招式攻击另一个槽位
+     *
+     * @param attacker 攻击方槽位
+     * @param defender 防御方槽位
+     * @param accuracyRoll 0到1之间的随机数，决定是否命中
+     * @param damageRoll 0到1之间的随机数，决定伤害浮动
+     * @return 造成的伤害，未命中时为0
+     */
+    public int attack(int attacker, int defender, double accuracyRoll, double damageRoll) {
+        int moveId = move[attacker];
+        emit(EVENT_MOVE, attacker, moveId);
+        if (!hits(database.getMoveAccuracy(moveId), accuracyRoll)) {
+            emit(EVENT_MISS, attacker, 0);
+            return 0;
+        }
+        int amount = damage(attack[attacker], level[attacker], database.getMovePower(moveId),
+                defense[defender], damageRoll);
+        hp[defender] = Math.max(0, hp[defender] - amount);
+        emit(EVENT_DAMAGE, defender, amount);
+        if (hp[defender] == 0) {
+            emit(EVENT_FAINTED, defender, 0);
+        }
+        return amount;
+    }
+
+    /**
+     * 计算用指定道具捕获槽位的成功率
+     */
+    public double captureRate(int target, int item) {
+        int mode = item >= 0 ? database.getCaptureMode(item) : GameDatabase.CAPTURE_NONE;
+        double bonus = item >= 0 ? database.getCaptureBonus(item) : 1.0;
+        return captureRate(hp[target], maxHp[target], level[target], mode, bonus);
+    }
+
+    /**
+     * 投出精灵球
+     *
+     * @param target 目标槽位
+     * @param item 精灵球道具ID
+     * @param roll 0到1之间的随机数，小于成功率时捕获成功
+     * @return 是否捕获成功
+     */
+    public boolean throwBall(int target, int item, double roll) {
+        boolean success = roll < captureRate(target, item);
+        emit(success ? EVENT_CAPTURED : EVENT_BROKE_FREE, target, item);
+        return success;
+    }
+
+    /**
+     * 记录投出精灵球（动画开始时显示）
+     */
+    public void announceBall(int target, int item) {
+        emit(EVENT_BALL_THROWN, target, item);
+    }
+
+    /**
+     * 对槽位使用回复道具
+     *
+     * @return 实际恢复的HP
+     */
+    public int useItem(int slot, int item) {
+        int before = hp[slot];
+        hp[slot] = Math.min(maxHp[slot], hp[slot] + database.getHealAmount(item));
+        emit(EVENT_ITEM_USED, slot, item);
+        return hp[slot] - before;
+    }
+
+    /**
+     * 记录野生宝可梦出现
+     */
+    public void appear(int slot) {
+        emit(EVENT_APPEARED, slot, 0);
+    }
+
+    /**
+     * 记录等待玩家选择行动
+     */
+    public void prompt() {
+        emit(EVENT_PROMPT, 0, 0);
+    }
+
+    /**
+     * 记录逃跑
+     */
+    public void flee(int slot) {
+        emit(EVENT_FLED, slot, 0);
+    }
+
+    private void emit(int code, int arg0, int arg1) {
+        if (eventCount == eventCode.length) {
+            int size = eventCount * 2;
+            eventCode = Arrays.copyOf(eventCode, size);
+            eventArg0 = Arrays.copyOf(eventArg0, size);
+            eventArg1 = Arrays.copyOf(eventArg1, size);
+        }
+        eventCode[eventCount] = code;
+        eventArg0[eventCount] = arg0;
+        eventArg1[eventCount] = arg1;
+        eventCount++;
+    }
+
+    // ---- 事件 ----
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getEventCode(int index) {
+        return eventCode[index];
+    }
+
+    public int getEventArg0(int index) {
+        return eventArg0[index];
+    }
+
+    public int getEventArg1(int index) {
+        return eventArg1[index];
+    }
+
+    /**
+     * 清空事件记录，参战宝可梦不变
+     */
+    public void clearEvents() {
+        eventCount = 0;
+    }
+
+    /**
+     * 把一段事件格式化为战斗信息
+     *
+     * @param from 起始事件（含）
+     * @param to 结束事件（不含）
+     * @return 战斗信息
+     */
+    public String formatEvents(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = Math.max(0, from); i < Math.min(to, eventCount); i++) {
+            appendEvent(sb, i);
+        }
+        return sb.toString();
+    }
+
+    private void appendEvent(StringBuilder sb, int index) {
+        int arg0 = eventArg0[index];
+        int arg1 = eventArg1[index];
+        switch (eventCode[index]) {
+            case EVENT_APPEARED:
+                sb.append("野生的").append(getName(arg0)).append("出现了！");
+                break;
+            case EVENT_MOVE:
+                sb.append(getName(arg0)).append("使用了").append(database.getMoveName(arg1)).append("！");
+                break;
+            case EVENT_MISS:
+                sb.append("但是没有命中！");
+                break;
+            case EVENT_DAMAGE:
+                sb.append("造成了").append(arg1).append("点伤害！");
+                break;
+            case EVENT_FAINTED:
+                if (arg0 == PLAYER) {
+                    sb.append(getName(arg0)).append("失去了战斗能力！");
+                } else {
+                    sb.append("你打败了").append(getName(arg0)).append("！");
+                }
+                break;
+            case EVENT_BALL_THROWN:
+                sb.append("你投出了").append(database.getItemName(arg1)).append("！");
+                break;
+            case EVENT_CAPTURED:
+                sb.append("恭喜！捕获了").append(getName(arg0)).append("！");
+                break;
+            case EVENT_BROKE_FREE:
+                sb.append(getName(arg0)).append("挣脱了出来！");
+                break;
+            case EVENT_ITEM_USED:
+                sb.append("你使用了").append(database.getItemName(arg1)).append("，恢复了一些HP！");
+                break;
+            case EVENT_FLED:
+                sb.append("成功逃跑！");
+                break;
+            case EVENT_PROMPT:
+                sb.append("请选择行动！");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ---- 槽位数值 ----
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getName(int slot) {
+        return database.getSpeciesName(species[slot]);
+    }
+
+    public int getSpecies(int slot) {
+        return species[slot];
+    }
+
+    public int getLevel(int slot) {
+        return level[slot];
+    }
+
+    public int getHp(int slot) {
+        return hp[slot];
+    }
+
+    public int getMaxHp(int slot) {
+        return maxHp[slot];
+    }
+
+    public int getAttack(int slot) {
+        return attack[slot];
+    }
+
+    public int getDefense(int slot) {
+        return defense[slot];
+    }
+
+    public int getMove(int slot) {
+        return move[slot];
+    }
+
+    public boolean isFainted(int slot) {
+        return hp[slot] == 0;
+    }
+}
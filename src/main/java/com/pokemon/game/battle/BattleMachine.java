@@ -0,0 +1,266 @@
+package com.pokemon.game.battle;
+
+import com.pokemon.game.data.GameDatabase;
+import com.pokemon.game.entity.Pokemon;
+import com.pokemon.game.util.GameRandom;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 战斗状态机，不依赖帧和界面
+ * 接收玩家指令后立即结算整个回合（包括敌方的反击），并把结果排成一条时间线：
+ * 每一拍对应BattleCore中的一段事件、建议的显示时长（逻辑步）和要播放的动画。
+ * 界面按时间线逐拍播放，模拟和AI可以忽略时长直接读取结果
+ */
+public class BattleMachine {
+
+    /**
+     * 战斗阶段
+     */
+    public enum Phase {
+        AWAITING_COMMAND, // 等待玩家指令
+        WON,              // 击败了敌方
+        CAPTURED,         // 捕获了敌方
+        LOST,             // 玩家倒下
+        FLED              // 逃跑成功
+    }
+
+    // 玩家指令，与战斗菜单的顺序一致
+    public static final int COMMAND_FIGHT = 0;
+    public static final int COMMAND_CATCH = 1;
+    public static final int COMMAND_ITEM = 2;
+    public static final int COMMAND_RUN = 3;
+
+    // 每一拍的动画
+    public static final int ANIM_NONE = 0;
+    public static final int ANIM_BALL_THROW = 1;  // 精灵球飞向敌方并摇晃
+    public static final int ANIM_BALL_RESULT = 2; // 精灵球停在敌方位置，同时显示捕获结果
+
+    // 每一拍的显示时长（逻辑步，60步约1秒）
+    public static final int MESSAGE_TICKS = 60;
+    public static final int FAINT_TICKS = 120;
+    public static final int BALL_THROW_TICKS = 40;
+    public static final int BALL_RESULT_TICKS = 80;
+
+    private final GameDatabase database;
+    private final BattleCore core;
+    private final SplittableRandom damageRandom;
+    private final SplittableRandom captureRandom;
+
+    private Phase phase = Phase.AWAITING_COMMAND;
+    private int ballItem;
+    private int potionItem;
+
+    // 时间线，head之前的拍已经被取走
+    private int beatHead;
+    private int beatCount;
+    private int[] beatFrom = new int[8];
+    private int[] beatTo = new int[8];
+    private int[] beatTicks = new int[8];
+    private int[] beatAnimation = new int[8];
+
+    /**
+     * 创建战斗状态机
+     *
+     * @param database 游戏数据库
+     * @param random 随机数服务，使用其中的伤害和捕获流
+     */
+    public BattleMachine(GameDatabase database, GameRandom random) {
+        this.database = database;
+        this.core = new BattleCore(database, 2);
+        this.damageRandom = random.stream(GameRandom.Stream.DAMAGE);
+        this.captureRandom = random.stream(GameRandom.Stream.CAPTURE);
+        this.ballItem = database.findItem("poke_ball");
+        this.potionItem = database.findItem("potion");
+    }
+
+    /**
+     * 开始一场新战斗
+     *
+     * @param player 玩家的宝可梦
+     * @param enemy 野生宝可梦
+     */
+    public void start(Pokemon player, Pokemon enemy) {
+        core.reset();
+        core.add(player);
+        core.add(enemy);
+        beatHead = 0;
+        beatCount = 0;
+        phase = Phase.AWAITING_COMMAND;
+
+        int from = core.getEventCount();
+        core.appear(BattleCore.ENEMY);
+        beat(from, MESSAGE_TICKS, ANIM_NONE);
+        from = core.getEventCount();
+        core.prompt();
+        beat(from, 0, ANIM_NONE);
+    }
+
+    /**
+     * 提交玩家指令，立即结算整个回合
+     *
+     * @param command 指令（COMMAND_*）
+     * @return 是否接受了指令，战斗已经结束时返回false
+     */
+    public boolean submit(int command) {
+        if (phase != Phase.AWAITING_COMMAND) {
+            return false;
+        }
+        int from = core.getEventCount();
+        switch (command) {
+            case COMMAND_FIGHT:
+                if (attack(BattleCore.PLAYER, BattleCore.ENEMY)) {
+                    phase = Phase.WON;
+                    return true;
+                }
+                break;
+            case COMMAND_CATCH:
+                core.announceBall(BattleCore.ENEMY, ballItem);
+                beat(from, BALL_THROW_TICKS, ANIM_BALL_THROW);
+                from = core.getEventCount();
+                boolean success = core.throwBall(BattleCore.ENEMY, ballItem, captureRandom.nextDouble());
+                beat(from, BALL_RESULT_TICKS, ANIM_BALL_RESULT);
+                if (success) {
+                    phase = Phase.CAPTURED;
+                    return true;
+                }
+                break;
+            case COMMAND_ITEM:
+                core.useItem(BattleCore.PLAYER, potionItem);
+                beat(from, MESSAGE_TICKS, ANIM_NONE);
+                break;
+            case COMMAND_RUN:
+                core.flee(BattleCore.PLAYER);
+                beat(from, MESSAGE_TICKS, ANIM_NONE);
+                phase = Phase.FLED;
+                return true;
+            default:
+                return false;
+        }
+
+        // 敌方反击
+        if (attack(BattleCore.ENEMY, BattleCore.PLAYER)) {
+            phase = Phase.LOST;
+        }
+        return true;
+    }
+
+    /**
+     * 攻击并把结果加入时间线
+     *
+     * @return 防御方是否倒下
+     */
+    private boolean attack(int attacker, int defender) {
+        int from = core.getEventCount();
+        core.attack(attacker, defender, damageRandom.nextDouble(), damageRandom.nextDouble());
+        if (core.isFainted(defender)) {
+            int faint = core.getEventCount() - 1;
+            beat(from, faint, MESSAGE_TICKS, ANIM_NONE);
+            beat(faint, FAINT_TICKS, ANIM_NONE);
+            return true;
+        }
+        beat(from, MESSAGE_TICKS, ANIM_NONE);
+        return false;
+    }
+
+    private void beat(int from, int ticks, int animation) {
+        beat(from, core.getEventCount(), ticks, animation);
+    }
+
+    private void beat(int from, int to, int ticks, int animation) {
+        if (beatCount == beatFrom.length) {
+            int size = beatCount * 2;
+            beatFrom = Arrays.copyOf(beatFrom, size);
+            beatTo = Arrays.copyOf(beatTo, size);
+            beatTicks = Arrays.copyOf(beatTicks, size);
+            beatAnimation = Arrays.copyOf(beatAnimation, size);
+        }
+        beatFrom[beatCount] = from;
+        beatTo[beatCount] = to;
+        beatTicks[beatCount] = ticks;
+        beatAnimation[beatCount] = animation;
+        beatCount++;
+    }
+
+    /**
+     * 设置捕捉时使用的精灵球
+     */
+    public void setBallItem(int item) {
+        ballItem = item;
+    }
+
+    public int getBallItem() {
+        return ballItem;
+    }
+
+    // ---- 时间线 ----
+
+    /**
+     * 时间线上是否还有没取走的拍
+     */
+    public boolean hasBeat() {
+        return beatHead < beatCount;
+    }
+
+    /**
+     * 取走当前拍，时间线空了以后从头复用
+     */
+    public void nextBeat() {
+        beatHead++;
+        if (beatHead >= beatCount) {
+            beatHead = 0;
+            beatCount = 0;
+        }
+    }
+
+    /**
+     * 当前拍的起始事件（含）
+     */
+    public int getBeatFrom() {
+        return beatFrom[beatHead];
+    }
+
+    /**
+     * 当前拍的结束事件（不含）
+     */
+    public int getBeatTo() {
+        return beatTo[beatHead];
+    }
+
+    /**
+     * 当前拍建议的显示时长（逻辑步）
+     */
+    public int getBeatTicks() {
+        return beatTicks[beatHead];
+    }
+
+    /**
+     * 当前拍的动画（ANIM_*）
+     */
+    public int getBeatAnimation() {
+        return beatAnimation[beatHead];
+    }
+
+    /**
+     * 丢弃整条时间线，用于不需要播放的场合（模拟、立即结算）
+     */
+    public void skipBeats() {
+        beatHead = 0;
+        beatCount = 0;
+    }
+
+    // ---- 状态 ----
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public boolean isOver() {
+        return phase != Phase.AWAITING_COMMAND;
+    }
+
+    public BattleCore getCore() {
+        return core;
+    }
+}
@@ -0,0 +1,358 @@
+package com.pokemon.game.battle;
+
+import com.pokemon.game.data.GameDatabase;
+import com.pokemon.game.util.GameRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 无界面的蒙特卡洛战斗模拟器，用于数值平衡
+ * 用BattleCore批量模拟玩家初始宝可梦对遭遇表中野生宝可梦的战斗，统计胜率、击倒所需回合数，
+ * 以及每种精灵球的捕获成功率。每个线程有自己的BattleCore和从种子分出的GameRandom，线程之间不共享可变状态
+ * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.battle.BattleSimulator" -Dexec.args="--battles=1000000"
+ * 可选参数: --battles=次数 --threads=线程数 --seed=种子（默认取 -Dpokemon.seed） --area=遭遇区域 --enemy=种类名称 --scaling
+ */
+public class BattleSimulator {
+
+    // 回合数直方图的上限，超过的计入最后一格
+    private static final int MAX_TURNS = 20;
+
+    // 单场战斗的回合上限，防止数值异常时死循环
+    private static final int TURN_LIMIT = 1000;
+
+    // 捕获策略：把敌方HP打到一半以下再投球
+    private static final double CAPTURE_HP_THRESHOLD = 0.5;
+
+    private final GameDatabase database;
+    private final int playerSpecies;
+    private final int playerLevel;
+    private final String area;
+    private final int enemySpecies; // -1表示按遭遇表随机
+    private final int[] balls;
+
+    /**
+     * 统计结果，每个线程一份，结束后合并
+     */
+    public static class Result {
+        long battles;
+        long wins;
+        long losses;
+        long playerTurns;
+        final long[] turnHistogram = new long[MAX_TURNS + 1]; // 下标为击倒敌方所需的玩家回合数
+        final long[] captureAttempts;
+        final long[] captures;
+        final long[] ballsThrown;
+        final long[] throwingAttempts; // 至少投出一个球的捕获尝试
+        long nanos;
+
+        Result(int ballCount) {
+            captureAttempts = new long[ballCount];
+            captures = new long[ballCount];
+            ballsThrown = new long[ballCount];
+            throwingAttempts = new long[ballCount];
+        }
+
+        void merge(Result other) {
+            battles += other.battles;
+            wins += other.wins;
+            losses += other.losses;
+            playerTurns += other.playerTurns;
+            for (int i = 0; i < turnHistogram.length; i++) {
+                turnHistogram[i] += other.turnHistogram[i];
+            }
+            for (int i = 0; i < captures.length; i++) {
+                captureAttempts[i] += other.captureAttempts[i];
+                captures[i] += other.captures[i];
+                ballsThrown[i] += other.ballsThrown[i];
+                throwingAttempts[i] += other.throwingAttempts[i];
+            }
+        }
+
+        public long getBattles() {
+            return battles;
+        }
+
+        public double getWinRate() {
+            return battles > 0 ? wins / (double) battles : 0;
+        }
+
+        public double getMeanTurnsToKo() {
+            return wins > 0 ? playerTurns / (double) wins : 0;
+        }
+
+        public double getCaptureRate(int ball) {
+            return captureAttempts[ball] > 0 ? captures[ball] / (double) captureAttempts[ball] : 0;
+        }
+
+        /**
+         * 投出过球的捕获尝试平均投球数，投球前敌方就倒下的尝试不计入
+         */
+        public double getMeanBallsThrown(int ball) {
+            return throwingAttempts[ball] > 0 ? ballsThrown[ball] / (double) throwingAttempts[ball] : 0;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * 创建模拟器
+     *
+     * @param database 游戏数据库
+     * @param area 遭遇区域
+     * @param enemySpecies 固定的敌方种类，-1表示按遭遇表随机
+     */
+    public BattleSimulator(GameDatabase database, String area, int enemySpecies) {
+        this.database = database;
+        this.area = area;
+        this.enemySpecies = enemySpecies;
+
+        int starter = database.pickEncounter(GameDatabase.AREA_STARTER, 0);
+        this.playerSpecies = database.getEncounterSpecies(starter);
+        this.playerLevel = database.getEncounterMinLevel(starter);
+
+        List<Integer> ballIds = new ArrayList<>();
+        for (int item = 0; item < database.getItemCount(); item++) {
+            if (database.getItemCategory(item) == GameDatabase.CATEGORY_BALL) {
+                ballIds.add(item);
+            }
+        }
+        balls = new int[ballIds.size()];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = ballIds.get(i);
+        }
+    }
+
+    /**
+     * 并行模拟
+     *
+     * @param battles 战斗场数（每种精灵球的捕获模拟也各进行这么多场）
+     * @param threads 线程数
+     * @param seed 随机种子，种子和线程数相同时结果可重现
+     * @return 合并后的结果
+     */
+    public Result run(long battles, int threads, long seed) {
+        GameRandom root = new GameRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                long share = battles / threads + (t < battles % threads ? 1 : 0);
+                GameRandom random = root.split();
+                futures.add(pool.submit(() -> simulate(share, random)));
+            }
+            Result total = new Result(balls.length);
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            total.nanos = System.nanoTime() - start;
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("模拟被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("模拟失败", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 在当前线程中模拟
+     */
+    private Result simulate(long battles, GameRandom random) {
+        BattleCore core = new BattleCore(database, 2);
+        Result result = new Result(balls.length);
+        SplittableRandom encounter = random.stream(GameRandom.Stream.ENCOUNTER);
+        SplittableRandom damage = random.stream(GameRandom.Stream.DAMAGE);
+        SplittableRandom capture = random.stream(GameRandom.Stream.CAPTURE);
+        for (long i = 0; i < battles; i++) {
+            simulateBattle(core, encounter, damage, result);
+            for (int b = 0; b < balls.length; b++) {
+                simulateCapture(core, encounter, damage, capture, result, b);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 开始一场战斗：放入玩家和随机的敌方宝可梦
+     */
+    private void startBattle(BattleCore core, SplittableRandom random) {
+        core.reset();
+        core.add(playerSpecies, playerLevel);
+        int slot = database.pickEncounter(area, random.nextInt(database.getEncounterWeight(area)));
+        int level = database.getEncounterMinLevel(slot) + random.nextInt(database.getEncounterLevelRange(slot));
+        core.add(enemySpecies >= 0 ? enemySpecies : database.getEncounterSpecies(slot), level);
+    }
+
+    /**
+     * 一直攻击直到一方倒下
+     */
+    private void simulateBattle(BattleCore core, SplittableRandom encounter, SplittableRandom damage,
+                                Result result) {
+        startBattle(core, encounter);
+        result.battles++;
+        for (int turn = 1; turn <= TURN_LIMIT; turn++) {
+            core.attack(BattleCore.PLAYER, BattleCore.ENEMY, damage.nextDouble(), damage.nextDouble());
+            if (core.isFainted(BattleCore.ENEMY)) {
+                result.wins++;
+                result.playerTurns += turn;
+                result.turnHistogram[Math.min(turn, MAX_TURNS)]++;
+                return;
+            }
+            core.attack(BattleCore.ENEMY, BattleCore.PLAYER, damage.nextDouble(), damage.nextDouble());
+            if (core.isFainted(BattleCore.PLAYER)) {
+                result.losses++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 先攻击到敌方HP一半以下，再反复投球直到捕获、敌方倒下或玩家倒下
+     */
+    private void simulateCapture(BattleCore core, SplittableRandom encounter, SplittableRandom damage,
+                                 SplittableRandom capture, Result result, int ball) {
+        startBattle(core, encounter);
+        result.captureAttempts[ball]++;
+        boolean thrown = false;
+        for (int turn = 1; turn <= TURN_LIMIT; turn++) {
+            int hp = core.getHp(BattleCore.ENEMY);
+            if (hp > core.getMaxHp(BattleCore.ENEMY) * CAPTURE_HP_THRESHOLD) {
+                core.attack(BattleCore.PLAYER, BattleCore.ENEMY, damage.nextDouble(), damage.nextDouble());
+                if (core.isFainted(BattleCore.ENEMY)) {
+                    return;
+                }
+            } else {
+                if (!thrown) {
+                    thrown = true;
+                    result.throwingAttempts[ball]++;
+                }
+                result.ballsThrown[ball]++;
+                if (core.throwBall(BattleCore.ENEMY, balls[ball], capture.nextDouble())) {
+                    result.captures[ball]++;
+                    return;
+                }
+            }
+            core.attack(BattleCore.ENEMY, BattleCore.PLAYER, damage.nextDouble(), damage.nextDouble());
+            if (core.isFainted(BattleCore.PLAYER)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 输出结果
+     */
+    private void printReport(Result result) {
+        String enemy = enemySpecies >= 0 ? database.getSpeciesName(enemySpecies) : "遭遇表" + area;
+        System.out.printf("%s Lv.%d 对 %s: %d场, 胜率 %.2f%%, 平均 %.2f 回合击倒%n",
+                database.getSpeciesName(playerSpecies), playerLevel, enemy,
+                result.battles, result.getWinRate() * 100, result.getMeanTurnsToKo());
+
+        System.out.println("击倒所需回合数:");
+        for (int turn = 1; turn <= MAX_TURNS; turn++) {
+            long count = result.turnHistogram[turn];
+            if (count == 0) {
+                continue;
+            }
+            double share = count / (double) Math.max(1, result.wins);
+            StringBuilder bar = new StringBuilder();
+            for (int i = 0; i < (int) (share * 50); i++) {
+                bar.append('#');
+            }
+            System.out.printf("  %s%2d: %6.2f%% %s%n", turn == MAX_TURNS ? ">=" : "  ", turn, share * 100, bar);
+        }
+
+        System.out.println("捕获成功率（HP打到一半以下后连续投球）:");
+        for (int b = 0; b < balls.length; b++) {
+            System.out.printf("  %-6s %6.2f%%, 平均投球 %.2f 个（只计投过球的场次）%n",
+                    database.getItemName(balls[b]), result.getCaptureRate(b) * 100, result.getMeanBallsThrown(b));
+        }
+
+        long simulated = result.battles * (1 + balls.length);
+        System.out.printf("耗时 %.0f ms, %.0f 场/秒%n", result.nanos / 1e6, simulated * 1e9 / result.nanos);
+    }
+
+    /**
+     * 用1到核心数个线程分别运行，输出吞吐量和相对单线程的加速比
+     */
+    private void printScaling(long battles, long seed) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("扩展性（CPU核心数 " + cores + "）:");
+        // 1、2、4...个线程，最后一次用全部核心
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(cores);
+
+        double single = 0;
+        for (int threads : counts) {
+            // 每个线程的工作量相同，总量随线程数增加
+            Result result = run(battles * threads, threads, seed);
+            double rate = result.battles * (1 + balls.length) * 1e9 / result.nanos;
+            if (threads == 1) {
+                single = rate;
+            }
+            System.out.printf("  %2d 线程: %.0f 场/秒, 加速 %.2fx%n", threads, rate, rate / single);
+        }
+    }
+
+    public static void main(String[] args) {
+        long battles = 100000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = Long.getLong("pokemon.seed", 0x5EED);
+        String area = GameDatabase.AREA_GRASS;
+        String enemy = null;
+        boolean scaling = false;
+        for (String arg : args) {
+            if (arg.startsWith("--battles=")) {
+                battles = Long.parseLong(arg.substring("--battles=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Math.max(1, Integer.parseInt(arg.substring("--threads=".length())));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--area=")) {
+                area = arg.substring("--area=".length());
+            } else if (arg.startsWith("--enemy=")) {
+                enemy = arg.substring("--enemy=".length());
+            } else if (arg.equals("--scaling")) {
+                scaling = true;
+            } else {
+                System.err.println("未知参数: " + arg);
+            }
+        }
+
+        GameDatabase database = GameDatabase.get();
+        if (database.getEncounterWeight(area) == 0) {
+            System.err.println("遭遇表中没有区域: " + area);
+            return;
+        }
+        int enemySpecies = -1;
+        if (enemy != null) {
+            enemySpecies = database.findSpecies(enemy);
+            if (enemySpecies < 0) {
+                System.err.println("数据库中没有种类: " + enemy);
+                return;
+            }
+        }
+
+        BattleSimulator simulator = new BattleSimulator(database, area, enemySpecies);
+        // 预热
+        simulator.run(Math.min(battles, 10000), threads, seed);
+        simulator.printReport(simulator.run(battles, threads, seed));
+        if (scaling) {
+            simulator.printScaling(Math.max(1, battles / 4), seed);
+        }
+    }
+}
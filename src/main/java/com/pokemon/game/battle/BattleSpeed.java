@@ -0,0 +1,68 @@
+package com.pokemon.game.battle;
+
+/**
+ * 战斗播放速度
+ * 只缩短信息停留和动画的时长，战斗结果由BattleMachine决定，与速度无关。
+ * 默认速度可以通过 -Dpokemon.battle.speed=1x|2x|4x|instant 指定
+ */
+public enum BattleSpeed {
+    NORMAL("1x", 1),
+    DOUBLE("2x", 2),
+    QUADRUPLE("4x", 4),
+    INSTANT("instant", 0);
+
+    private final String label;
+    private final int multiplier;
+
+    BattleSpeed(String label, int multiplier) {
+        this.label = label;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * 按倍速缩短时长
+     *
+     * @param ticks 1倍速下的逻辑步数
+     * @return 当前速度下的逻辑步数，立即模式为0
+     */
+    public int scale(int ticks) {
+        if (multiplier == 0) {
+            return 0;
+        }
+        return (ticks + multiplier - 1) / multiplier;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析速度名称（1x、2x、4x、instant）
+     *
+     * @return 速度，无法识别时返回null
+     */
+    public static BattleSpeed parse(String value) {
+        for (BattleSpeed speed : values()) {
+            if (speed.label.equalsIgnoreCase(value.trim())) {
+                return speed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取 -Dpokemon.battle.speed，没有指定或无法识别时为1倍速
+     */
+    public static BattleSpeed fromSystemProperty() {
+        String value = System.getProperty("pokemon.battle.speed");
+        if (value == null) {
+            return NORMAL;
+        }
+        BattleSpeed speed = parse(value);
+        if (speed == null) {
+            System.err.println("无法识别的战斗速度: " + value + "，使用1x");
+            return NORMAL;
+        }
+        return speed;
+    }
+}
@@ -0,0 +1,424 @@
+package com.pokemon.game.data;
+
+import com.pokemon.game.util.ImageLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游戏数据库：宝可梦种类、招式、道具和遭遇表
+ * 数据从 src/main/resources/data/ 下的制表符分隔文件读取，加载后按列存入基本类型数组，
+ * 种类、招式、道具都用从0开始的整数ID访问，查询不分配对象。增加种类只需要修改数据文件
+ */
+public class GameDatabase {
+
+    // 数据文件目录（资源路径）
+    private static final String DATA_DIR = "data/";
+
+    // 道具类别
+    public static final int CATEGORY_OTHER = 0;
+    public static final int CATEGORY_BALL = 1;
+    public static final int CATEGORY_MEDICINE = 2;
+
+    // 精灵球的捕获方式
+    public static final int CAPTURE_NONE = 0;
+    public static final int CAPTURE_MULTIPLY = 1;   // 成功率乘以加成
+    public static final int CAPTURE_GUARANTEED = 2; // 必定捕获
+    public static final int CAPTURE_NEST = 3;       // 等级越低加成越高
+
+    // 遭遇区域
+    public static final String AREA_GRASS = "grass";
+    public static final String AREA_STARTER = "starter";
+
+    private static GameDatabase instance;
+
+    // 种类表
+    private final int speciesCount;
+    private final String[] speciesNames;
+    private final int[] speciesDex;
+    private final int[] speciesHp;
+    private final int[] speciesAttack;
+    private final int[] speciesDefense;
+    private final int[] speciesMove;
+    private final String[] speciesFront;
+    private final String[] speciesBack;
+    private final String[] speciesIcon;
+    private final Map<String, Integer> speciesIds = new HashMap<>();
+
+    // 招式表
+    private final int moveCount;
+    private final String[] moveNames;
+    private final int[] movePower;
+    private final int[] moveAccuracy;
+    private final Map<String, Integer> moveIds = new HashMap<>();
+
+    // 道具表
+    private final int itemCount;
+    private final String[] itemKeys;
+    private final String[] itemNames;
+    private final int[] itemCategory;
+    private final int[] itemCaptureMode;
+    private final double[] itemCaptureBonus;
+    private final int[] itemHeal;
+    private final Map<String, Integer> itemIds = new HashMap<>();
+
+    // 遭遇表：每个区域占连续的一段，按权重累加
+    private final int[] encounterSpecies;
+    private final int[] encounterMinLevel;
+    private final int[] encounterMaxLevel;
+    private final int[] encounterCumulativeWeight;
+    private final Map<String, int[]> encounterAreas = new HashMap<>(); // 区域 -> {起始行, 结束行, 总权重}
+
+    /**
+     * 获取默认数据库，首次调用时从资源文件加载
+     */
+    public static synchronized GameDatabase get() {
+        if (instance == null) {
+            instance = load(DATA_DIR);
+        }
+        return instance;
+    }
+
+    /**
+     * 从指定目录加载数据库
+     *
+     * @param dir 资源目录，以/结尾
+     * @return 数据库
+     */
+    public static GameDatabase load(String dir) {
+        return new GameDatabase(
+                readTable(dir + "species.tsv", 9),
+                readTable(dir + "moves.tsv", 3),
+                readTable(dir + "items.tsv", 6),
+                readTable(dir + "encounters.tsv", 5));
+    }
+
+    private GameDatabase(List<String[]> species, List<String[]> moves, List<String[]> items, List<String[]> encounters) {
+        moveCount = moves.size();
+        moveNames = new String[moveCount];
+        movePower = new int[moveCount];
+        moveAccuracy = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            String[] row = moves.get(i);
+            moveNames[i] = row[0];
+            movePower[i] = Integer.parseInt(row[1]);
+            moveAccuracy[i] = Integer.parseInt(row[2]);
+            moveIds.put(row[0], i);
+        }
+
+        speciesCount = species.size();
+        speciesNames = new String[speciesCount];
+        speciesDex = new int[speciesCount];
+        speciesHp = new int[speciesCount];
+        speciesAttack = new int[speciesCount];
+        speciesDefense = new int[speciesCount];
+        speciesMove = new int[speciesCount];
+        speciesFront = new String[speciesCount];
+        speciesBack = new String[speciesCount];
+        speciesIcon = new String[speciesCount];
+        for (int i = 0; i < speciesCount; i++) {
+            String[] row = species.get(i);
+            speciesDex[i] = Integer.parseInt(row[0]);
+            speciesNames[i] = row[1];
+            speciesHp[i] = Integer.parseInt(row[2]);
+            speciesAttack[i] = Integer.parseInt(row[3]);
+            speciesDefense[i] = Integer.parseInt(row[4]);
+            speciesMove[i] = lookup(moveIds, row[5], "招式");
+            speciesFront[i] = optionalPath(row[6]);
+            speciesBack[i] = optionalPath(row[7]);
+            speciesIcon[i] = optionalPath(row[8]);
+            speciesIds.put(row[1], i);
+        }
+
+        itemCount = items.size();
+        itemKeys = new String[itemCount];
+        itemNames = new String[itemCount];
+        itemCategory = new int[itemCount];
+        itemCaptureMode = new int[itemCount];
+        itemCaptureBonus = new double[itemCount];
+        itemHeal = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            String[] row = items.get(i);
+            itemKeys[i] = row[0];
+            itemNames[i] = row[1];
+            itemCategory[i] = parseCategory(row[2]);
+            itemCaptureMode[i] = parseCaptureMode(row[3]);
+            itemCaptureBonus[i] = Double.parseDouble(row[4]);
+            itemHeal[i] = Integer.parseInt(row[5]);
+            itemIds.put(row[0], i);
+        }
+
+        int encounterCount = encounters.size();
+        encounterSpecies = new int[encounterCount];
+        encounterMinLevel = new int[encounterCount];
+        encounterMaxLevel = new int[encounterCount];
+        encounterCumulativeWeight = new int[encounterCount];
+        String currentArea = null;
+        int areaStart = 0;
+        int areaWeight = 0;
+        for (int i = 0; i < encounterCount; i++) {
+            String[] row = encounters.get(i);
+            if (!row[0].equals(currentArea)) {
+                if (currentArea != null) {
+                    encounterAreas.put(currentArea, new int[] {areaStart, i, areaWeight});
+                }
+                if (encounterAreas.containsKey(row[0])) {
+                    throw new IllegalArgumentException("遭遇表中区域" + row[0] + "的行不连续");
+                }
+                currentArea = row[0];
+                areaStart = i;
+                areaWeight = 0;
+            }
+            encounterSpecies[i] = lookup(speciesIds, row[1], "种类");
+            encounterMinLevel[i] = Integer.parseInt(row[2]);
+            encounterMaxLevel[i] = Integer.parseInt(row[3]);
+            areaWeight += Integer.parseInt(row[4]);
+            encounterCumulativeWeight[i] = areaWeight;
+        }
+        if (currentArea != null) {
+            encounterAreas.put(currentArea, new int[] {areaStart, encounterCount, areaWeight});
+        }
+    }
+
+    /**
+     * 读取制表符分隔的数据文件，跳过空行和#开头的注释
+     */
+    private static List<String[]> readTable(String path, int columns) {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream stream = ImageLoader.openResourceStream(path)) {
+            if (stream == null) {
+                System.err.println("数据文件不存在: " + path);
+                return rows;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] row = line.split("\t");
+                if (row.length < columns) {
+                    throw new IllegalArgumentException("数据文件" + path + "第" + lineNumber + "行应有"
+                            + columns + "列: " + line);
+                }
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = row[i].trim();
+                }
+                rows.add(Arrays.copyOf(row, columns));
+            }
+        } catch (IOException e) {
+            System.err.println("无法读取数据文件: " + path);
+            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    private static int lookup(Map<String, Integer> ids, String name, String table) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("未知的" + table + ": " + name);
+        }
+        return id;
+    }
+
+    private static String optionalPath(String value) {
+        return value.equals("-") ? null : value;
+    }
+
+    private static int parseCategory(String value) {
+        switch (value) {
+            case "ball":
+                return CATEGORY_BALL;
+            case "medicine":
+                return CATEGORY_MEDICINE;
+            default:
+                return CATEGORY_OTHER;
+        }
+    }
+
+    private static int parseCaptureMode(String value) {
+        switch (value) {
+            case "multiply":
+                return CAPTURE_MULTIPLY;
+            case "guaranteed":
+                return CAPTURE_GUARANTEED;
+            case "nest":
+                return CAPTURE_NEST;
+            case "-":
+                return CAPTURE_NONE;
+            default:
+                throw new IllegalArgumentException("未知的捕获方式: " + value);
+        }
+    }
+
+    // ---- 种类 ----
+
+    public int getSpeciesCount() {
+        return speciesCount;
+    }
+
+    /**
+     * 按名称查找种类ID
+     *
+     * @return 种类ID，不存在时返回-1
+     */
+    public int findSpecies(String name) {
+        Integer id = speciesIds.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String getSpeciesName(int id) {
+        return speciesNames[id];
+    }
+
+    public int getDexNumber(int id) {
+        return speciesDex[id];
+    }
+
+    public int getBaseHp(int id) {
+        return speciesHp[id];
+    }
+
+    public int getBaseAttack(int id) {
+        return speciesAttack[id];
+    }
+
+    public int getBaseDefense(int id) {
+        return speciesDefense[id];
+    }
+
+    public int getSpeciesMove(int id) {
+        return speciesMove[id];
+    }
+
+    /**
+     * 获取正面图路径，没有图片时返回null
+     */
+    public String getFrontSpritePath(int id) {
+        return speciesFront[id];
+    }
+
+    public String getBackSpritePath(int id) {
+        return speciesBack[id];
+    }
+
+    public String getIconSpritePath(int id) {
+        return speciesIcon[id];
+    }
+
+    // ---- 招式 ----
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public String getMoveName(int id) {
+        return moveNames[id];
+    }
+
+    public int getMovePower(int id) {
+        return movePower[id];
+    }
+
+    /**
+     * 获取命中率（百分比）
+     */
+    public int getMoveAccuracy(int id) {
+        return moveAccuracy[id];
+    }
+
+    // ---- 道具 ----
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * 按代号查找道具ID
+     *
+     * @return 道具ID，不存在时返回-1
+     */
+    public int findItem(String key) {
+        Integer id = itemIds.get(key);
+        return id != null ? id : -1;
+    }
+
+    public String getItemKey(int id) {
+        return itemKeys[id];
+    }
+
+    public String getItemName(int id) {
+        return itemNames[id];
+    }
+
+    public int getItemCategory(int id) {
+        return itemCategory[id];
+    }
+
+    public int getCaptureMode(int id) {
+        return itemCaptureMode[id];
+    }
+
+    public double getCaptureBonus(int id) {
+        return itemCaptureBonus[id];
+    }
+
+    public int getHealAmount(int id) {
+        return itemHeal[id];
+    }
+
+    // ---- 遭遇 ----
+
+    /**
+     * 获取区域的总权重，区域不存在时返回0
+     */
+    public int getEncounterWeight(String area) {
+        int[] range = encounterAreas.get(area);
+        return range != null ? range[2] : 0;
+    }
+
+    /**
+     * 按权重选择遭遇表中的一行
+     *
+     * @param area 区域
+     * @param roll 0到总权重之间（不含）的随机数
+     * @return 遭遇表行号，区域不存在时返回-1
+     */
+    public int pickEncounter(String area, int roll) {
+        int[] range = encounterAreas.get(area);
+        if (range == null) {
+            return -1;
+        }
+        for (int i = range[0]; i < range[1]; i++) {
+            if (roll < encounterCumulativeWeight[i]) {
+                return i;
+            }
+        }
+        return range[1] - 1;
+    }
+
+    public int getEncounterSpecies(int slot) {
+        return encounterSpecies[slot];
+    }
+
+    public int getEncounterMinLevel(int slot) {
+        return encounterMinLevel[slot];
+    }
+
+    /**
+     * 获取等级范围的大小（最高等级-最低等级+1）
+     */
+    public int getEncounterLevelRange(int slot) {
+        return encounterMaxLevel[slot] - encounterMinLevel[slot] + 1;
+    }
+}
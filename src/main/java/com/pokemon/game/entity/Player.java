@@ -1,6 +1,8 @@
 package com.pokemon.game.entity;
 
+import com.pokemon.game.map.Camera;
 import com.pokemon.game.util.ImageLoader;
+import com.pokemon.game.util.IndexedSprite;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -19,6 +21,10 @@ public class Player {
     private int x;
     private int y;
     
+    // 上一逻辑步的位置，用于渲染插值
+    private int previousX;
+    private int previousY;
+    
     // 玩家大小
     private final int WIDTH = 48; // 增加尺寸
     private final int HEIGHT = 64; // 增加尺寸
@@ -53,10 +59,12 @@ public class Player {
     public Player(int x, int y) {
         this.x = x;
         this.y = y;
+        this.previousX = x;
+        this.previousY = y;
         
         // 初始宝可梦：皮卡丘
         pokemons = new ArrayList<>();
-        pokemons.add(new Pokemon("皮卡丘", 25, 100, 10, 5));
+        pokemons.add(Pokemon.createStarter());
         
         // 加载玩家精灵图
         loadPlayerSprites();
@@ -76,17 +84,20 @@ public class Player {
     private void loadPlayerSprites() {
         try {
             // 加载玩家精灵表（不以/开头）
-            playerSheet = ImageLoader.loadImage("image/player/player.png");
+            IndexedSprite sheet = ImageLoader.loadPinnedIndexedSprite("image/player/player.png");
             
             // 如果加载失败，创建一个空白图像避免空指针异常
-            if (playerSheet == null) {
+            if (sheet == null) {
                 System.err.println("警告：无法加载玩家图片，尝试加载player-2.png");
-                playerSheet = ImageLoader.loadImage("image/player/player-2.png");
-                
-                if (playerSheet == null) {
-                    System.err.println("警告：无法加载player-2.png，使用占位图像");
-                    playerSheet = new BufferedImage(WIDTH * 3, HEIGHT * 4, BufferedImage.TYPE_INT_ARGB);
-                }
+                sheet = ImageLoader.loadPinnedIndexedSprite("image/player/player-2.png");
+            }
+            
+            // 调色板格式的精灵表，切出的动画帧共享同一份像素
+            if (sheet != null) {
+                playerSheet = sheet.getImage();
+            } else {
+                System.err.println("警告：无法加载player-2.png，使用占位图像");
+                playerSheet = new BufferedImage(WIDTH * 3, HEIGHT * 4, BufferedImage.TYPE_INT_ARGB);
             }
             
             // 初始化方向对应的精灵图数组
@@ -181,18 +192,15 @@ public class Player {
     }
     
     /**
-     * 创建占位图像
+     * 创建占位图像，只有蓝白两色
      */
     private BufferedImage createPlaceholderImage() {
-        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-        g.setColor(Color.BLUE);
-        g.fillRect(0, 0, WIDTH, HEIGHT);
-        g.setColor(Color.WHITE);
-        g.drawRect(2, 2, WIDTH-4, HEIGHT-4);
-        g.drawString("Player", 5, HEIGHT/2);
-        g.dispose();
-        return image;
+        int[] palette = {Color.BLUE.getRGB(), Color.WHITE.getRGB()};
+        return IndexedSprite.create(WIDTH, HEIGHT, palette, g -> {
+            g.setColor(Color.WHITE);
+            g.drawRect(2, 2, WIDTH-4, HEIGHT-4);
+            g.drawString("Player", 5, HEIGHT/2);
+        }).getImage();
     }
     
     public void moveUp() {
@@ -267,12 +275,62 @@ public class Player {
         moving = false;
     }
     
-    public void render(Graphics2D g) {
+    /**
+     * 记录当前位置作为插值起点，每个逻辑步开始时调用；
+     * 传送（切换地图等）之后也应调用，避免跨越传送距离插值
+     */
+    public void syncPreviousPosition() {
+        previousX = x;
+        previousY = y;
+    }
+    
+    /**
+     * 获取插值后的X坐标
+     * 
+     * @param alpha 插值比例
+     */
+    public int getRenderX(double alpha) {
+        return (int) Math.round(previousX + (x - previousX) * alpha);
+    }
+    
+    /**
+     * 获取插值后的Y坐标
+     * 
+     * @param alpha 插值比例
+     */
+    public int getRenderY(double alpha) {
+        return (int) Math.round(previousY + (y - previousY) * alpha);
+    }
+    
+    /**
+     * 渲染玩家，位于摄像机视口外时直接跳过
+     * 
+     * @param g 图形对象
+     * @param camera 摄像机
+     */
+    public void render(Graphics2D g, Camera camera) {
+        render(g, camera, 1.0);
+    }
+    
+    /**
+     * 按插值位置渲染玩家
+     * 
+     * @param g 图形对象
+     * @param camera 摄像机
+     * @param alpha 插值比例
+     */
+    public void render(Graphics2D g, Camera camera, double alpha) {
+        int renderX = getRenderX(alpha);
+        int renderY = getRenderY(alpha);
+        if (!camera.isVisible(renderX, renderY, WIDTH, HEIGHT)) {
+            return;
+        }
+        
         // 从当前方向的精灵图数组中获取当前帧
         BufferedImage currentSprite = playerSprites.get(direction)[currentFrame];
         
         // 绘制玩家精灵图
-        g.drawImage(currentSprite, x, y, null);
+        g.drawImage(currentSprite, camera.toScreenX(renderX), camera.toScreenY(renderY), null);
     }
     
     // Getters and setters
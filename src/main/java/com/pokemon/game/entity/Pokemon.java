@@ -1,108 +1,51 @@
 package com.pokemon.game.entity;
 
-import com.pokemon.game.util.ImageLoader;
+import com.pokemon.game.data.GameDatabase;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 
 /**
  * 宝可梦类，表示游戏中的宝可梦
+ * 只保存个体的状态，精灵图等种类数据由PokemonSpecies共享
  */
 public class Pokemon {
     
-    private String name;
+    private final PokemonSpecies species;
     private int level;
     private int hp;
     private int maxHp;
     private int attack;
     private int defense;
+    private int move; // 招式ID
     
-    // 宝可梦图片
-    private BufferedImage frontSprite;  // 正面(战斗中敌方)
-    private BufferedImage backSprite;   // 背面(战斗中我方)
-    private BufferedImage iconSprite;   // 小图标(菜单中)
+    // 是否为闪光宝可梦，闪光配色只替换调色板
+    private boolean shiny;
     
     /**
-     * 创建一个宝可梦
+     * 创建一个宝可梦，初始数值取自数据库中该种类的基础值
      * 
-     * @param name 宝可梦名称
+     * @param speciesId 种类ID
      * @param level 宝可梦等级
-     * @param maxHp 最大生命值
-     * @param attack 攻击力
-     * @param defense 防御力
      */
-    public Pokemon(String name, int level, int maxHp, int attack, int defense) {
-        this.name = name;
+    public Pokemon(int speciesId, int level) {
+        GameDatabase database = GameDatabase.get();
+        this.species = SpeciesRegistry.get(speciesId);
         this.level = level;
-        this.maxHp = maxHp;
+        this.maxHp = database.getBaseHp(speciesId);
         this.hp = maxHp;
-        this.attack = attack;
-        this.defense = defense;
-        
-        // 加载宝可梦图片
-        loadSprites();
+        this.attack = database.getBaseAttack(speciesId);
+        this.defense = database.getBaseDefense(speciesId);
+        this.move = database.getSpeciesMove(speciesId);
     }
     
     /**
-     * 加载宝可梦精灵图
+     * 创建玩家的初始宝可梦（遭遇表中starter区域的第一行）
      */
-    private void loadSprites() {
-        try {
-            // 由于没有具体的宝可梦图片资源，这里简单处理
-            // 实际应该根据宝可梦名称加载对应图片
-            
-            // 如果有皮卡丘，尝试加载皮卡丘图片（路径不要以/开头）
-            if (name.equals("皮卡丘")) {
-                frontSprite = ImageLoader.loadImage("image/pokemon/pikachu_front.png");
-                backSprite = ImageLoader.loadImage("image/pokemon/pikachu_back.png");
-                iconSprite = ImageLoader.loadImage("image/pokemon/pikachu_icon.png");
-            }
-            
-            // 其他宝可梦使用默认图片
-            if (frontSprite == null) {
-                frontSprite = createPlaceholderImage(name.hashCode());
-            }
-            
-            if (backSprite == null) {
-                backSprite = createPlaceholderImage(name.hashCode() + 50);
-            }
-            
-            if (iconSprite == null) {
-                iconSprite = createPlaceholderImage(name.hashCode() + 100);
-            }
-        } catch (Exception e) {
-            System.err.println("加载宝可梦图片时出错: " + e.getMessage());
-            frontSprite = createPlaceholderImage(name.hashCode());
-            backSprite = createPlaceholderImage(name.hashCode() + 50);
-            iconSprite = createPlaceholderImage(name.hashCode() + 100);
-        }
-    }
-    
-    /**
-     * 创建占位图像
-     * 
-     * @param seed 随机种子，用于确定颜色
-     * @return 占位图像
-     */
-    private BufferedImage createPlaceholderImage(int seed) {
-        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-        
-        // 使用宝可梦名称作为种子生成不同颜色
-        int r = (seed % 255);
-        int g2 = ((seed / 255) % 255);
-        int b = ((seed / (255 * 255)) % 255);
-        
-        g.setColor(new java.awt.Color(r, g2, b));
-        g.fillRect(0, 0, 64, 64);
-        
-        // 绘制简单的宝可梦轮廓
-        g.setColor(java.awt.Color.WHITE);
-        g.drawOval(16, 8, 32, 32); // 头
-        g.drawRect(24, 40, 16, 24); // 身体
-        
-        g.dispose();
-        return image;
+    public static Pokemon createStarter() {
+        GameDatabase database = GameDatabase.get();
+        int slot = database.pickEncounter(GameDatabase.AREA_STARTER, 0);
+        return new Pokemon(database.getEncounterSpecies(slot), database.getEncounterMinLevel(slot));
     }
     
     /**
@@ -149,7 +92,7 @@ public class Pokemon {
      * @param isFront 是否显示正面
      */
     public void render(Graphics2D g, int x, int y, boolean isFront) {
-        BufferedImage sprite = isFront ? frontSprite : backSprite;
+        BufferedImage sprite = isFront ? getFrontSprite() : getBackSprite();
         g.drawImage(sprite, x, y, null);
     }
     
@@ -161,13 +104,17 @@ public class Pokemon {
      * @param y Y坐标
      */
     public void renderIcon(Graphics2D g, int x, int y) {
-        g.drawImage(iconSprite, x, y, null);
+        g.drawImage(getIconSprite(), x, y, null);
     }
     
     // Getters and setters
     
     public String getName() {
-        return name;
+        return species.getName();
+    }
+    
+    public PokemonSpecies getSpecies() {
+        return species;
     }
     
     public int getLevel() {
@@ -190,15 +137,27 @@ public class Pokemon {
         return defense;
     }
     
+    public int getMove() {
+        return move;
+    }
+    
+    public boolean isShiny() {
+        return shiny;
+    }
+    
+    public void setShiny(boolean shiny) {
+        this.shiny = shiny;
+    }
+    
     public BufferedImage getFrontSprite() {
-        return frontSprite;
+        return species.getFrontSprite(shiny).getImage();
     }
     
     public BufferedImage getBackSprite() {
-        return backSprite;
+        return species.getBackSprite(shiny).getImage();
     }
     
     public BufferedImage getIconSprite() {
-        return iconSprite;
+        return species.getIconSprite(shiny).getImage();
     }
 } 
\ No newline at end of file
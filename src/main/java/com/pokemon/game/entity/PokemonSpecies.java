@@ -0,0 +1,111 @@
+package com.pokemon.game.entity;
+
+import com.pokemon.game.data.GameDatabase;
+import com.pokemon.game.util.ImageLoader;
+import com.pokemon.game.util.IndexedSprite;
+
+import java.awt.Color;
+
+/**
+ * 宝可梦种类，保存同一种类所有个体共享的数据（目前是精灵图），数值由GameDatabase提供
+ * 由SpeciesRegistry创建，每个种类只有一个实例
+ */
+public class PokemonSpecies {
+
+    private final int id;
+    private final String name;
+
+    // 宝可梦图片，以调色板格式保存，所有个体共享
+    private final IndexedSprite frontSprite;  // 正面(战斗中敌方)
+    private final IndexedSprite backSprite;   // 背面(战斗中我方)
+    private final IndexedSprite iconSprite;   // 小图标(菜单中)
+
+    PokemonSpecies(GameDatabase database, int id) {
+        this.id = id;
+        this.name = database.getSpeciesName(id);
+
+        // 数据库中没有图片的种类使用默认图片
+        IndexedSprite front = loadSprite(database.getFrontSpritePath(id));
+        IndexedSprite back = loadSprite(database.getBackSpritePath(id));
+        IndexedSprite icon = loadSprite(database.getIconSpritePath(id));
+        this.frontSprite = front != null ? front : createPlaceholderImage(name.hashCode());
+        this.backSprite = back != null ? back : createPlaceholderImage(name.hashCode() + 50);
+        this.iconSprite = icon != null ? icon : createPlaceholderImage(name.hashCode() + 100);
+    }
+
+    private static IndexedSprite loadSprite(String path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return ImageLoader.loadIndexedSprite(path);
+        } catch (Exception e) {
+            System.err.println("加载宝可梦图片时出错: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 创建占位图像，只有背景色和白色轮廓两种颜色
+     *
+     * @param seed 随机种子，用于确定颜色
+     * @return 占位图像
+     */
+    private static IndexedSprite createPlaceholderImage(int seed) {
+        // 使用宝可梦名称作为种子生成不同颜色
+        int r = (seed % 255);
+        int g2 = ((seed / 255) % 255);
+        int b = ((seed / (255 * 255)) % 255);
+        Color background = new Color(Math.abs(r), Math.abs(g2), Math.abs(b));
+
+        int[] palette = {background.getRGB(), Color.WHITE.getRGB()};
+        return IndexedSprite.create(64, 64, palette, g -> {
+            // 绘制简单的宝可梦轮廓
+            g.setColor(Color.WHITE);
+            g.drawOval(16, 8, 32, 32); // 头
+            g.drawRect(24, 40, 16, 24); // 身体
+        });
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取正面精灵图
+     *
+     * @param shiny 是否使用闪光配色
+     */
+    public IndexedSprite getFrontSprite(boolean shiny) {
+        return shiny ? frontSprite.getShiny() : frontSprite;
+    }
+
+    /**
+     * 获取背面精灵图
+     *
+     * @param shiny 是否使用闪光配色
+     */
+    public IndexedSprite getBackSprite(boolean shiny) {
+        return shiny ? backSprite.getShiny() : backSprite;
+    }
+
+    /**
+     * 获取小图标
+     *
+     * @param shiny 是否使用闪光配色
+     */
+    public IndexedSprite getIconSprite(boolean shiny) {
+        return shiny ? iconSprite.getShiny() : iconSprite;
+    }
+
+    /**
+     * 获取精灵图占用的字节数（不含闪光配色，闪光配色与原图共享像素）
+     */
+    public long getSpriteBytes() {
+        return frontSprite.getMemoryBytes() + backSprite.getMemoryBytes() + iconSprite.getMemoryBytes();
+    }
+}
@@ -0,0 +1,66 @@
+package com.pokemon.game.entity;
+
+import com.pokemon.game.data.GameDatabase;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 宝可梦种类注册表
+ * 每个种类只创建一次并在所有个体之间共享，创建宝可梦个体时不再分配图片。
+ * 种类按GameDatabase中的种类ID存放在数组里
+ */
+public class SpeciesRegistry {
+
+    private static final GameDatabase database = GameDatabase.get();
+    private static final AtomicReferenceArray<PokemonSpecies> species =
+            new AtomicReferenceArray<>(database.getSpeciesCount());
+
+    private SpeciesRegistry() {
+    }
+
+    /**
+     * 获取种类，首次获取时创建，可以在任意线程中调用
+     *
+     * @param id 种类ID
+     * @return 种类
+     */
+    public static PokemonSpecies get(int id) {
+        PokemonSpecies existing = species.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (SpeciesRegistry.class) {
+            existing = species.get(id);
+            if (existing == null) {
+                existing = new PokemonSpecies(database, id);
+                species.set(id, existing);
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * 按名称获取种类
+     *
+     * @param name 种类名称
+     * @return 种类，数据库中没有该种类时返回null
+     */
+    public static PokemonSpecies get(String name) {
+        int id = database.findSpecies(name);
+        return id >= 0 ? get(id) : null;
+    }
+
+    /**
+     * 获取已创建种类的精灵图总字节数
+     */
+    public static long getSpriteBytes() {
+        long total = 0;
+        for (int i = 0; i < species.length(); i++) {
+            PokemonSpecies s = species.get(i);
+            if (s != null) {
+                total += s.getSpriteBytes();
+            }
+        }
+        return total;
+    }
+}
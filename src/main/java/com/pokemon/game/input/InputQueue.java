@@ -0,0 +1,150 @@
+package com.pokemon.game.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的无锁按键事件队列
+ * 生产者是AWT事件线程（KeyHandler），消费者是游戏线程，每个逻辑步开始时一次性取出所有事件。
+ * 事件按发生顺序保存并带有时间戳，不会因为按下和松开发生在同一帧内而丢失。
+ * 读写位置各只由一个线程修改，用lazySet发布，不需要加锁
+ */
+public class InputQueue {
+
+    // 默认容量，每个逻辑步内的按键事件远少于这个数
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // 松开所有按键的事件，不对应任何按键
+    private static final int RELEASE_ALL = -1;
+
+    private final int mask;
+    private final int[] events;  // 按键序号 << 1 | 是否按下，或RELEASE_ALL
+    private final long[] times;  // System.nanoTime()时间戳
+
+    // 生产者写入位置和消费者读取位置，只增不减
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    // 队列满时丢弃的事件数（只由生产者修改）
+    private volatile long dropped;
+
+    // 消费者上次取出时看到的丢弃数（只由消费者使用）
+    private long droppedSeen;
+
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        events = new int[size];
+        times = new long[size];
+    }
+
+    /**
+     * 放入一个事件，只能由生产者线程调用
+     *
+     * @param key 按键
+     * @param down true为按下，false为松开
+     * @param nanos 时间戳
+     * @return 是否放入，队列满时返回false
+     */
+    public boolean offer(Key key, boolean down, long nanos) {
+        return offerEvent(key.ordinal() << 1 | (down ? 1 : 0), nanos);
+    }
+
+    /**
+     * 放入一个松开所有按键的事件，用于窗口失去焦点，只能由生产者线程调用
+     *
+     * @param nanos 时间戳
+     * @return 是否放入，队列满时返回false
+     */
+    public boolean offerReleaseAll(long nanos) {
+        return offerEvent(RELEASE_ALL, nanos);
+    }
+
+    private boolean offerEvent(int event, long nanos) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int index = (int) t & mask;
+        events[index] = event;
+        times[index] = nanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 取出所有事件并应用到输入状态，只能由消费者线程调用
+     * 会先清除上一步的按下和松开标记
+     *
+     * @param state 输入状态
+     * @return 取出的事件数
+     */
+    public int drain(InputState state) {
+        return drain(state, null);
+    }
+
+    /**
+     * 取出所有事件并应用到输入状态，同时交给录像器记录
+     * 如果上次取出后有事件因队列满被丢弃，丢弃的可能是松开事件，最后会松开所有按键，避免按键卡住
+     *
+     * @param state 输入状态
+     * @param recorder 录像器，可以为null
+     * @return 取出的事件数
+     */
+    public int drain(InputState state, InputRecorder recorder) {
+        state.beginTick();
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++) {
+            int index = (int) i & mask;
+            int event = events[index];
+            if (event == RELEASE_ALL) {
+                releaseAll(state, recorder);
+                continue;
+            }
+            Key key = Key.of(event >>> 1);
+            boolean down = (event & 1) != 0;
+            state.apply(key, down, times[index]);
+            if (recorder != null) {
+                recorder.record(key, down);
+            }
+        }
+        head.lazySet(t);
+
+        long d = dropped;
+        if (d != droppedSeen) {
+            droppedSeen = d;
+            releaseAll(state, recorder);
+        }
+        return (int) (t - h);
+    }
+
+    private static void releaseAll(InputState state, InputRecorder recorder) {
+        state.releaseAll();
+        if (recorder != null) {
+            recorder.recordReleaseAll();
+        }
+    }
+
+    /**
+     * 队列中尚未取出的事件数
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
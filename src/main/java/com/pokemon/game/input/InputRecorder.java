@@ -0,0 +1,136 @@
+package com.pokemon.game.input;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 按键录像的写入器
+ * 随机种子和逻辑步长固定时，一局游戏完全由每一步的按键事件决定，所以只需要记录这些事件。
+ * 文件格式（大端）：
+ * <pre>
+ *   文件头  int 魔数"PKRP"，byte 版本，long 随机种子，UTF 战斗速度
+ *   记录    变长整数 距上一条记录的步数，byte 事件数n（1-255），n个byte 事件（按键序号 &lt;&lt; 1 | 是否按下，0xFF为松开所有按键）
+ *   结尾    变长整数 距上一条记录的步数，byte 0
+ * </pre>
+ * 没有按键的步不占空间。只由游戏线程写入，close也可能由关闭钩子调用，所以方法都加了同步
+ */
+public class InputRecorder implements Closeable {
+
+    static final int MAGIC = 0x504B5250;
+    static final int VERSION = 1;
+    static final byte RELEASE_ALL = (byte) 0xFF;
+
+    private final DataOutputStream out;
+
+    // 当前步的事件，步结束时才写入
+    private final byte[] pending = new byte[255];
+    private int pendingCount;
+
+    private long currentTick;
+    private long lastWrittenTick;
+    private long eventCount;
+    private boolean closed;
+
+    /**
+     * 创建录像文件并写入文件头
+     *
+     * @param file 录像文件
+     * @param seed 本局的随机种子
+     * @param battleSpeed 战斗速度名称，会影响战斗占用的步数
+     */
+    public InputRecorder(File file, long seed, String battleSpeed) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeUTF(battleSpeed);
+    }
+
+    /**
+     * 开始新的一步，写出上一步的事件
+     *
+     * @param tick 步序号，从0开始递增
+     */
+    public synchronized void beginTick(long tick) {
+        if (closed) {
+            return;
+        }
+        flushPending();
+        currentTick = tick;
+    }
+
+    /**
+     * 记录当前步的一个按键事件
+     */
+    public synchronized void record(Key key, boolean down) {
+        recordEvent((byte) (key.ordinal() << 1 | (down ? 1 : 0)));
+    }
+
+    /**
+     * 记录当前步松开了所有按键（窗口失去焦点或有事件被丢弃）
+     */
+    public synchronized void recordReleaseAll() {
+        recordEvent(RELEASE_ALL);
+    }
+
+    private void recordEvent(byte event) {
+        if (closed) {
+            return;
+        }
+        if (pendingCount == pending.length) {
+            flushPending();
+        }
+        pending[pendingCount++] = event;
+        eventCount++;
+    }
+
+    private void flushPending() {
+        if (pendingCount == 0) {
+            return;
+        }
+        try {
+            writeVarLong(currentTick - lastWrittenTick);
+            out.writeByte(pendingCount);
+            out.write(pending, 0, pendingCount);
+        } catch (IOException e) {
+            System.err.println("写入按键录像失败: " + e.getMessage());
+        }
+        lastWrittenTick = currentTick;
+        pendingCount = 0;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * 写出剩余事件和结尾标记，录像的总步数为最后一次beginTick的步序号加1
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushPending();
+            writeVarLong(currentTick + 1 - lastWrittenTick);
+            out.writeByte(0);
+            out.close();
+        } catch (IOException e) {
+            System.err.println("关闭按键录像失败: " + e.getMessage());
+        }
+    }
+
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+}
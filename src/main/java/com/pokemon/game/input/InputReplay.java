@@ -0,0 +1,144 @@
+package com.pokemon.game.input;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 按键录像的回放
+ * 整个录像读入内存，每一步按步序号把当时的按键事件应用到输入快照，代替来自键盘的输入队列。
+ * 程序被强制结束时录像可能没有结尾标记，此时以最后一个事件所在的步为结尾
+ */
+public class InputReplay {
+
+    // 回放时事件的时间戳按固定步长推算
+    private static final long STEP_NANOS = 1000000000L / 60;
+
+    private final long seed;
+    private final String battleSpeed;
+
+    private final long[] ticks;
+    private final byte[] events;
+    private final long totalTicks;
+
+    private int cursor;
+
+    private InputReplay(long seed, String battleSpeed, long[] ticks, byte[] events, long totalTicks) {
+        this.seed = seed;
+        this.battleSpeed = battleSpeed;
+        this.ticks = ticks;
+        this.events = events;
+        this.totalTicks = totalTicks;
+    }
+
+    /**
+     * 读取录像文件
+     *
+     * @param file 由InputRecorder写入的录像
+     * @return 回放
+     */
+    public static InputReplay load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != InputRecorder.MAGIC) {
+                throw new IOException("不是按键录像文件: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != InputRecorder.VERSION) {
+                throw new IOException("不支持的录像版本: " + version);
+            }
+            long seed = in.readLong();
+            String battleSpeed = in.readUTF();
+
+            long[] ticks = new long[256];
+            byte[] events = new byte[256];
+            int count = 0;
+            long tick = 0;
+            long totalTicks;
+            while (true) {
+                int n;
+                try {
+                    tick += readVarLong(in);
+                    n = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    // 没有结尾标记
+                    totalTicks = count > 0 ? ticks[count - 1] + 1 : 0;
+                    break;
+                }
+                if (n == 0) {
+                    totalTicks = tick;
+                    break;
+                }
+                if (count + n > events.length) {
+                    int size = Math.max(events.length * 2, count + n);
+                    ticks = Arrays.copyOf(ticks, size);
+                    events = Arrays.copyOf(events, size);
+                }
+                in.readFully(events, count, n);
+                for (int i = 0; i < n; i++) {
+                    ticks[count + i] = tick;
+                }
+                count += n;
+            }
+            if (totalTicks <= 0) {
+                throw new IOException("录像中没有任何逻辑步: " + file);
+            }
+            return new InputReplay(seed, battleSpeed,
+                    Arrays.copyOf(ticks, count), Arrays.copyOf(events, count), totalTicks);
+        }
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 开始新的一步，应用录像中这一步的事件
+     *
+     * @param tick 步序号，必须从0开始逐步递增
+     * @param state 输入快照
+     * @return 应用的事件数
+     */
+    public int apply(long tick, InputState state) {
+        state.beginTick();
+        int from = cursor;
+        while (cursor < ticks.length && ticks[cursor] == tick) {
+            int event = events[cursor];
+            if (event == InputRecorder.RELEASE_ALL) {
+                state.releaseAll();
+                cursor++;
+                continue;
+            }
+            state.apply(Key.of(event >>> 1), (event & 1) != 0, (tick + 1) * STEP_NANOS);
+            cursor++;
+        }
+        return cursor - from;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getBattleSpeed() {
+        return battleSpeed;
+    }
+
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    public int getEventCount() {
+        return ticks.length;
+    }
+}
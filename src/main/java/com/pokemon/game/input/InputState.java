@@ -0,0 +1,100 @@
+package com.pokemon.game.input;
+
+/**
+ * 每个逻辑步的输入快照，只在游戏线程中使用
+ * held为当前按住的键，pressed和released为本步内刚按下和刚松开的键。
+ * 同一步内按下又松开的键pressed和released都会置位，held不置位，因此短按也不会丢失
+ */
+public class InputState {
+
+    private int held;
+    private int pressed;
+    private int released;
+
+    // 本步最早的事件时间戳，没有事件时为0
+    private long firstEventNanos;
+
+    /**
+     * 开始新的一步，清除上一步的按下和松开标记
+     */
+    public void beginTick() {
+        pressed = 0;
+        released = 0;
+        firstEventNanos = 0;
+    }
+
+    /**
+     * 应用一个按键事件。按住时系统的自动重复按下会被忽略
+     *
+     * @param key 按键
+     * @param down true为按下，false为松开
+     * @param nanos 时间戳
+     */
+    public void apply(Key key, boolean down, long nanos) {
+        int bit = key.mask();
+        if (down) {
+            if ((held & bit) == 0) {
+                pressed |= bit;
+                held |= bit;
+            }
+        } else if ((held & bit) != 0) {
+            released |= bit;
+            held &= ~bit;
+        }
+        if (firstEventNanos == 0) {
+            firstEventNanos = nanos;
+        }
+    }
+
+    /**
+     * 松开所有按键，用于窗口失去焦点等情况
+     */
+    public void releaseAll() {
+        released |= held;
+        held = 0;
+    }
+
+    /**
+     * 按键是否正被按住
+     */
+    public boolean isHeld(Key key) {
+        return (held & key.mask()) != 0;
+    }
+
+    /**
+     * 按键是否按住，或者在本步内按下过（包括按下后又松开的短按）
+     */
+    public boolean isDown(Key key) {
+        return ((held | pressed) & key.mask()) != 0;
+    }
+
+    /**
+     * 按键是否在本步内刚被按下
+     */
+    public boolean isPressed(Key key) {
+        return (pressed & key.mask()) != 0;
+    }
+
+    /**
+     * 按键是否在本步内刚被松开
+     */
+    public boolean isReleased(Key key) {
+        return (released & key.mask()) != 0;
+    }
+
+    public int getHeldMask() {
+        return held;
+    }
+
+    public int getPressedMask() {
+        return pressed;
+    }
+
+    public int getReleasedMask() {
+        return released;
+    }
+
+    public long getFirstEventNanos() {
+        return firstEventNanos;
+    }
+}
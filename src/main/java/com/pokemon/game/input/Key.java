@@ -0,0 +1,53 @@
+package com.pokemon.game.input;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * 游戏使用的按键，每个按键对应InputState位掩码中的一位
+ */
+public enum Key {
+    UP, DOWN, LEFT, RIGHT, ENTER, SPACE, ESC;
+
+    private static final Key[] VALUES = values();
+
+    /**
+     * 位掩码
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * 按序号取按键
+     */
+    public static Key of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * 把AWT键码转换为游戏按键
+     *
+     * @param keyCode KeyEvent中的键码
+     * @return 按键，游戏不使用的键返回null
+     */
+    public static Key fromKeyCode(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_UP:
+                return UP;
+            case KeyEvent.VK_DOWN:
+                return DOWN;
+            case KeyEvent.VK_LEFT:
+                return LEFT;
+            case KeyEvent.VK_RIGHT:
+                return RIGHT;
+            case KeyEvent.VK_ENTER:
+                return ENTER;
+            case KeyEvent.VK_SPACE:
+                return SPACE;
+            case KeyEvent.VK_ESCAPE:
+                return ESC;
+            default:
+                return null;
+        }
+    }
+}
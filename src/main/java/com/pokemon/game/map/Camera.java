@@ -0,0 +1,130 @@
+package com.pokemon.game.map;
+
+import com.pokemon.game.entity.Player;
+
+/**
+ * 视口摄像机，跟随玩家并负责世界坐标与屏幕坐标之间的转换
+ * 渲染时只绘制视口范围内的内容，每帧开销取决于屏幕大小而不是地图大小
+ */
+public class Camera {
+
+    // 视口左上角在世界中的坐标
+    private int x;
+    private int y;
+
+    // 视口尺寸
+    private int viewportWidth;
+    private int viewportHeight;
+
+    // 世界（地图）尺寸，用于限制摄像机范围
+    private int worldWidth;
+    private int worldHeight;
+
+    /**
+     * 创建摄像机
+     *
+     * @param viewportWidth 视口宽度
+     * @param viewportHeight 视口高度
+     */
+    public Camera(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * 设置世界尺寸
+     *
+     * @param worldWidth 世界宽度
+     * @param worldHeight 世界高度
+     */
+    public void setWorldBounds(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        clamp();
+    }
+
+    /**
+     * 设置视口尺寸
+     *
+     * @param viewportWidth 视口宽度
+     * @param viewportHeight 视口高度
+     */
+    public void setViewportSize(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+        clamp();
+    }
+
+    /**
+     * 以玩家为中心移动摄像机
+     *
+     * @param player 玩家对象
+     */
+    public void follow(Player player) {
+        centerOn(player.getX() + player.getWidth() / 2, player.getY() + player.getHeight() / 2);
+    }
+
+    /**
+     * 以指定的世界坐标为中心移动摄像机
+     *
+     * @param worldX 世界X坐标
+     * @param worldY 世界Y坐标
+     */
+    public void centerOn(int worldX, int worldY) {
+        x = worldX - viewportWidth / 2;
+        y = worldY - viewportHeight / 2;
+        clamp();
+    }
+
+    /**
+     * 把摄像机限制在世界范围内，世界比视口小时贴住左上角
+     */
+    private void clamp() {
+        x = Math.max(0, Math.min(x, worldWidth - viewportWidth));
+        y = Math.max(0, Math.min(y, worldHeight - viewportHeight));
+    }
+
+    /**
+     * 世界X坐标转换为屏幕X坐标
+     */
+    public int toScreenX(int worldX) {
+        return worldX - x;
+    }
+
+    /**
+     * 世界Y坐标转换为屏幕Y坐标
+     */
+    public int toScreenY(int worldY) {
+        return worldY - y;
+    }
+
+    /**
+     * 判断世界中的矩形是否与视口相交，用于裁剪屏幕外的内容
+     *
+     * @param worldX 矩形左上角X坐标
+     * @param worldY 矩形左上角Y坐标
+     * @param width 矩形宽度
+     * @param height 矩形高度
+     * @return 是否可见
+     */
+    public boolean isVisible(int worldX, int worldY, int width, int height) {
+        return worldX < x + viewportWidth && worldX + width > x
+                && worldY < y + viewportHeight && worldY + height > y;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public int getViewportHeight() {
+        return viewportHeight;
+    }
+}
@@ -0,0 +1,132 @@
+package com.pokemon.game.map;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 碰撞检测基准测试，对比遍历障碍物列表与瓦片碰撞索引的耗时
+ * 同时输出瓦片图层与旧的Rectangle列表的内存估算
+ * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.map.CollisionBenchmark"
+ */
+public class CollisionBenchmark {
+
+    // 与玩家包围盒一致的尺寸
+    private static final int BOX_WIDTH = 48;
+    private static final int BOX_HEIGHT = 64;
+
+    // 一个Rectangle对象加上列表中的引用的估算大小
+    private static final int LEGACY_RECT_BYTES = 36;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 20;
+
+    public static void main(String[] args) {
+        String[] maps = args.length > 0 ? args : new String[] {"104号道路", "城华森林", "103号道路", "真心镇"};
+
+        for (String mapName : maps) {
+            runMap(mapName);
+        }
+    }
+
+    private static void runMap(String mapName) {
+        GameMap map = new GameMap(mapName);
+        CollisionGrid grid = map.getCollisionGrid();
+        List<Rectangle> obstacles = buildLegacyObstacles(grid);
+
+        // 以4像素步长覆盖整张地图，模拟玩家可能出现的所有位置
+        int step = 4;
+        int positionsX = Math.max(1, (map.getMapWidth() - BOX_WIDTH) / step);
+        int positionsY = Math.max(1, (map.getMapHeight() - BOX_HEIGHT) / step);
+        int queries = positionsX * positionsY;
+
+        int[] buffer = new int[grid.maxTilesFor(BOX_WIDTH, BOX_HEIGHT)];
+
+        // 校验两种方式结果一致
+        long legacyHits = scanList(obstacles, positionsX, positionsY, step);
+        long gridHits = queryGrid(grid, buffer, positionsX, positionsY, step);
+        if (legacyHits != gridHits) {
+            System.err.println("结果不一致: " + mapName + " 列表=" + legacyHits + " 索引=" + gridHits);
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanList(obstacles, positionsX, positionsY, step);
+            queryGrid(grid, buffer, positionsX, positionsY, step);
+        }
+
+        long legacyTime = 0;
+        long gridTime = 0;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            scanList(obstacles, positionsX, positionsY, step);
+            legacyTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            queryGrid(grid, buffer, positionsX, positionsY, step);
+            gridTime += System.nanoTime() - start;
+        }
+
+        long totalQueries = (long) queries * MEASURE_ROUNDS;
+        double legacyNs = legacyTime / (double) totalQueries;
+        double gridNs = gridTime / (double) totalQueries;
+
+        System.out.printf("%s (%dx%d, 障碍物%d个): 列表遍历 %.1f ns/次, 瓦片索引 %.1f ns/次, 加速 %.1fx%n",
+                mapName, map.getMapWidth(), map.getMapHeight(), obstacles.size(),
+                legacyNs, gridNs, legacyNs / Math.max(gridNs, 0.001));
+
+        // 旧实现：int[][]每格4字节，障碍和草地瓦片各一个Rectangle（约32字节对象 + 4字节引用）
+        TileLayer layer = grid.getLayer();
+        long tileCount = (long) layer.getCols() * layer.getRows();
+        long rectCount = layer.getSolidBits().cardinality() + layer.getGrassBits().cardinality();
+        long legacyBytes = tileCount * 4 + rectCount * LEGACY_RECT_BYTES;
+        System.out.printf("    内存: int[][]+Rectangle列表 约%d字节, 瓦片图层 %d字节%n",
+                legacyBytes, layer.getMemoryBytes());
+    }
+
+    /**
+     * 按旧的loadObstacles方式为每个障碍瓦片创建一个Rectangle
+     */
+    private static List<Rectangle> buildLegacyObstacles(CollisionGrid grid) {
+        List<Rectangle> obstacles = new ArrayList<>();
+        int tileSize = grid.getTileSize();
+        for (int row = 0; row < grid.getRows(); row++) {
+            for (int col = 0; col < grid.getCols(); col++) {
+                if (grid.isSolid(col, row)) {
+                    obstacles.add(new Rectangle(col * tileSize, row * tileSize, tileSize, tileSize));
+                }
+            }
+        }
+        return obstacles;
+    }
+
+    /**
+     * 旧实现：每次分配一个Rectangle并遍历全部障碍物
+     */
+    private static long scanList(List<Rectangle> obstacles, int positionsX, int positionsY, int step) {
+        long hits = 0;
+        for (int py = 0; py < positionsY; py++) {
+            for (int px = 0; px < positionsX; px++) {
+                Rectangle playerRect = new Rectangle(px * step, py * step, BOX_WIDTH, BOX_HEIGHT);
+                for (Rectangle obstacle : obstacles) {
+                    if (playerRect.intersects(obstacle)) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 新实现：只查询包围盒下方的瓦片
+     */
+    private static long queryGrid(CollisionGrid grid, int[] buffer, int positionsX, int positionsY, int step) {
+        long hits = 0;
+        for (int py = 0; py < positionsY; py++) {
+            for (int px = 0; px < positionsX; px++) {
+                hits += grid.queryBlocked(px * step, py * step, BOX_WIDTH, BOX_HEIGHT, buffer);
+            }
+        }
+        return hits;
+    }
+}
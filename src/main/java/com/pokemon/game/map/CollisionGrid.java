@@ -0,0 +1,152 @@
+package com.pokemon.game.map;
+
+import java.util.BitSet;
+
+/**
+ * 基于瓦片网格的碰撞索引
+ * 直接根据瓦片图层回答"某个矩形覆盖了哪些障碍瓦片"，
+ * 只检查矩形下方的少数几个格子，查询过程不产生任何对象分配
+ */
+public class CollisionGrid {
+
+    private final TileLayer layer;
+    private final int tileSize;
+    private final int rows;
+    private final int cols;
+
+    /**
+     * 创建碰撞索引
+     *
+     * @param layer 瓦片图层
+     * @param tileSize 瓦片尺寸（像素）
+     */
+    public CollisionGrid(TileLayer layer, int tileSize) {
+        this.layer = layer;
+        this.tileSize = tileSize;
+        this.rows = layer.getRows();
+        this.cols = layer.getCols();
+    }
+
+    /**
+     * 判断指定格子是否为障碍物，越界的格子视为可通行
+     *
+     * @param col 列
+     * @param row 行
+     * @return 是否为障碍物
+     */
+    public boolean isSolid(int col, int row) {
+        return layer.isSolid(col, row);
+    }
+
+    /**
+     * 查询与矩形相交的障碍瓦片
+     * 结果按行优先顺序写入out，每个元素为 row * getCols() + col
+     *
+     * @param x 矩形左上角X坐标
+     * @param y 矩形左上角Y坐标
+     * @param width 矩形宽度
+     * @param height 矩形高度
+     * @param out 结果缓冲区，由调用方复用
+     * @return 写入out的瓦片数量（超过out长度的部分会被丢弃）
+     */
+    public int queryBlocked(int x, int y, int width, int height, int[] out) {
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+
+        // 与java.awt.Rectangle.intersects一致：仅接触边缘不算相交
+        int firstCol = Math.max(0, Math.floorDiv(x, tileSize));
+        int lastCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(y, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, tileSize));
+
+        BitSet solid = layer.getSolidBits();
+        int count = 0;
+        for (int row = firstRow; row <= lastRow && count < out.length; row++) {
+            for (int col = firstCol; col <= lastCol && count < out.length; col++) {
+                int index = row * cols + col;
+                if (solid.get(index)) {
+                    out[count++] = index;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 判断矩形是否与任何障碍瓦片相交
+     *
+     * @param x 矩形左上角X坐标
+     * @param y 矩形左上角Y坐标
+     * @param width 矩形宽度
+     * @param height 矩形高度
+     * @return 是否相交
+     */
+    public boolean overlapsBlocked(int x, int y, int width, int height) {
+        return overlaps(layer.getSolidBits(), x, y, width, height);
+    }
+
+    /**
+     * 判断矩形是否与任何草地瓦片相交
+     *
+     * @param x 矩形左上角X坐标
+     * @param y 矩形左上角Y坐标
+     * @param width 矩形宽度
+     * @param height 矩形高度
+     * @return 是否相交
+     */
+    public boolean overlapsGrass(int x, int y, int width, int height) {
+        return overlaps(layer.getGrassBits(), x, y, width, height);
+    }
+
+    private boolean overlaps(BitSet bits, int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+
+        int firstCol = Math.max(0, Math.floorDiv(x, tileSize));
+        int lastCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(y, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, tileSize));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            // 只检查矩形覆盖的格子
+            int rowStart = row * cols;
+            for (int index = rowStart + firstCol; index <= rowStart + lastCol; index++) {
+                if (bits.get(index)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算覆盖指定尺寸矩形时最多可能涉及的瓦片数量，用于分配查询缓冲区
+     *
+     * @param width 矩形宽度
+     * @param height 矩形高度
+     * @return 最大瓦片数量
+     */
+    public int maxTilesFor(int width, int height) {
+        int spanX = (width + tileSize - 1) / tileSize + 1;
+        int spanY = (height + tileSize - 1) / tileSize + 1;
+        return spanX * spanY;
+    }
+
+    public TileLayer getLayer() {
+        return layer;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
@@ -1,15 +1,13 @@
 package com.pokemon.game.map;
 
 import com.pokemon.game.entity.Player;
+import com.pokemon.game.entity.Player.Direction;
 import com.pokemon.game.util.ImageLoader;
 
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * 游戏地图类，负责管理和渲染游戏地图
@@ -17,21 +15,24 @@ import java.util.List;
 public class GameMap {
     
     private String mapName;
-    private int[][] mapData;  // 0:道路, 1:墙壁, 2:草地, 3:建筑
+    private TileLayer tiles;  // 0:道路, 1:墙壁, 2:草地, 3:建筑
     
     // 地图尺寸
     private final int TILE_SIZE = 32;
+    
+    // 地图出口宽度（格子数）
+    private static final int EXIT_WIDTH = 4;
     private int mapWidth;
     private int mapHeight;
     
-    // 碰撞检测用的障碍物列表
-    private List<Rectangle> obstacles;
+    // 瓦片碰撞索引，直接查询瓦片图层
+    private CollisionGrid collisionGrid;
     
-    // 草地区域列表
-    private List<Rectangle> grassAreas;
+    // 碰撞查询缓冲区，避免每帧分配
+    private int[] blockedTiles = new int[0];
     
-    // 地图图片
-    private BufferedImage mapImage;
+    // 分块地图图片，按需解码视口附近的块
+    private MapChunkStore chunkStore;
     
     /**
      * 创建一个新地图
@@ -42,7 +43,7 @@ public class GameMap {
         this.mapName = mapName;
         loadMapImage();
         initMap();
-        loadObstacles();
+        collisionGrid = new CollisionGrid(tiles, TILE_SIZE);
     }
     
     /**
@@ -93,18 +94,22 @@ public class GameMap {
                 break;
         }
         
-        // 加载地图图片（路径不要以/开头）
-        mapImage = ImageLoader.loadImage(imagePath + mapFileName);
+        // 打开地图图片（路径不要以/开头），此时只读取尺寸，像素在渲染时按块解码
+        chunkStore = MapChunkStore.open(imagePath + mapFileName, MapChunkStore.DEFAULT_CHUNK_SIZE);
         
-        if (mapImage == null) {
-            System.err.println("警告：无法加载地图图片: " + mapFileName);
-            // 创建一个简单的占位地图
-            mapImage = createDefaultMap();
+        if (chunkStore == null) {
+            BufferedImage mapImage = ImageLoader.loadImage(imagePath + mapFileName);
+            if (mapImage == null) {
+                System.err.println("警告：无法加载地图图片: " + mapFileName);
+                // 创建一个简单的占位地图
+                mapImage = createDefaultMap();
+            }
+            chunkStore = MapChunkStore.fromImage(mapImage, MapChunkStore.DEFAULT_CHUNK_SIZE);
         }
         
         // 设置地图尺寸
-        mapWidth = mapImage.getWidth();
-        mapHeight = mapImage.getHeight();
+        mapWidth = chunkStore.getWidth();
+        mapHeight = chunkStore.getHeight();
     }
     
     /**
@@ -154,23 +159,17 @@ public class GameMap {
         int numTilesX = (mapWidth + TILE_SIZE - 1) / TILE_SIZE; // 向上取整
         int numTilesY = (mapHeight + TILE_SIZE - 1) / TILE_SIZE; // 向上取整
         
-        mapData = new int[numTilesY][numTilesX];
-        
-        // 初始化地图为道路
-        for(int i = 0; i < numTilesY; i++) {
-            for(int j = 0; j < numTilesX; j++) {
-                mapData[i][j] = 0; // 道路
-            }
-        }
+        // 新建的图层默认全部为道路
+        tiles = new TileLayer(numTilesX, numTilesY);
         
         // 外围墙壁
-        for(int i = 0; i < numTilesY; i++) {
-            for(int j = 0; j < numTilesX; j++) {
-                if(i == 0 || i == numTilesY - 1 || j == 0 || j == numTilesX - 1) {
-                    mapData[i][j] = 1; // 墙壁
-                }
-            }
-        }
+        tiles.fill(0, 0, numTilesX, 1, TileLayer.WALL);
+        tiles.fill(0, numTilesY - 1, numTilesX, 1, TileLayer.WALL);
+        tiles.fill(0, 0, 1, numTilesY, TileLayer.WALL);
+        tiles.fill(numTilesX - 1, 0, 1, numTilesY, TileLayer.WALL);
+        
+        // 与相邻地图相连的边在中间留出出口
+        carveExits(numTilesX, numTilesY);
         
         // 根据图片中添加左侧和右侧房屋的墙壁
         // 左侧房屋
@@ -184,17 +183,8 @@ public class GameMap {
         int rightHouseStartY = 2;
         
         // 添加房屋墙壁
-        for(int i = leftHouseStartY; i < leftHouseStartY + houseHeight; i++) {
-            for(int j = leftHouseStartX; j < leftHouseStartX + houseWidth; j++) {
-                mapData[i][j] = 3; // 建筑
-            }
-        }
-        
-        for(int i = rightHouseStartY; i < rightHouseStartY + houseHeight; i++) {
-            for(int j = rightHouseStartX; j < rightHouseStartX + houseWidth; j++) {
-                mapData[i][j] = 3; // 建筑
-            }
-        }
+        tiles.fill(leftHouseStartX, leftHouseStartY, houseWidth, houseHeight, TileLayer.BUILDING);
+        tiles.fill(rightHouseStartX, rightHouseStartY, houseWidth, houseHeight, TileLayer.BUILDING);
         
         // 添加中间建筑
         int middleBuildingStartX = numTilesX / 2 - 2;
@@ -202,11 +192,7 @@ public class GameMap {
         int middleBuildingWidth = 4;
         int middleBuildingHeight = 4;
         
-        for(int i = middleBuildingStartY; i < middleBuildingStartY + middleBuildingHeight; i++) {
-            for(int j = middleBuildingStartX; j < middleBuildingStartX + middleBuildingWidth; j++) {
-                mapData[i][j] = 3; // 建筑
-            }
-        }
+        tiles.fill(middleBuildingStartX, middleBuildingStartY, middleBuildingWidth, middleBuildingHeight, TileLayer.BUILDING);
         
         // 添加下方建筑
         int bottomBuildingStartX = numTilesX / 2 - 3;
@@ -214,59 +200,63 @@ public class GameMap {
         int bottomBuildingWidth = 6;
         int bottomBuildingHeight = 3;
         
-        for(int i = bottomBuildingStartY; i < bottomBuildingStartY + bottomBuildingHeight; i++) {
-            for(int j = bottomBuildingStartX; j < bottomBuildingStartX + bottomBuildingWidth; j++) {
-                mapData[i][j] = 3; // 建筑
-            }
-        }
+        tiles.fill(bottomBuildingStartX, bottomBuildingStartY, bottomBuildingWidth, bottomBuildingHeight, TileLayer.BUILDING);
         
         // 添加草地区域
         // 左上角草地
-        for(int i = 5; i < 10; i++) {
-            for(int j = 3; j < 7; j++) {
-                mapData[i][j] = 2; // 草地
-            }
-        }
+        tiles.fill(3, 5, 4, 5, TileLayer.GRASS);
         
         // 右上角草地
-        for(int i = 5; i < 10; i++) {
-            for(int j = numTilesX - 8; j < numTilesX - 3; j++) {
-                mapData[i][j] = 2; // 草地
-            }
-        }
+        tiles.fill(numTilesX - 8, 5, 5, 5, TileLayer.GRASS);
         
         // 右下角草地
-        for(int i = numTilesY - 10; i < numTilesY - 5; i++) {
-            for(int j = numTilesX - 8; j < numTilesX - 3; j++) {
-                mapData[i][j] = 2; // 草地
-            }
-        }
+        tiles.fill(numTilesX - 8, numTilesY - 10, 5, 5, TileLayer.GRASS);
         
         // 左下角草地
-        for(int i = numTilesY - 10; i < numTilesY - 5; i++) {
-            for(int j = 3; j < 7; j++) {
-                mapData[i][j] = 2; // 草地
-            }
-        }
+        tiles.fill(3, numTilesY - 10, 4, 5, TileLayer.GRASS);
     }
     
     /**
-     * 加载障碍物和草地区域
+     * 在有相邻地图的边上打开出口
      */
-    private void loadObstacles() {
-        obstacles = new ArrayList<>();
-        grassAreas = new ArrayList<>();
+    private void carveExits(int numTilesX, int numTilesY) {
+        int exitStartX = numTilesX / 2 - EXIT_WIDTH / 2;
+        int exitStartY = numTilesY / 2 - EXIT_WIDTH / 2;
         
-        for(int i = 0; i < mapData.length; i++) {
-            for(int j = 0; j < mapData[i].length; j++) {
-                if(mapData[i][j] == 1 || mapData[i][j] == 3) {
-                    // 墙壁和建筑是障碍物
-                    obstacles.add(new Rectangle(j * TILE_SIZE, i * TILE_SIZE, TILE_SIZE, TILE_SIZE));
-                } else if(mapData[i][j] == 2) {
-                    // 草地区域
-                    grassAreas.add(new Rectangle(j * TILE_SIZE, i * TILE_SIZE, TILE_SIZE, TILE_SIZE));
-                }
-            }
+        if (MapConnections.getNeighbor(mapName, Direction.UP) != null) {
+            tiles.fill(exitStartX, 0, EXIT_WIDTH, 1, TileLayer.ROAD);
+        }
+        if (MapConnections.getNeighbor(mapName, Direction.DOWN) != null) {
+            tiles.fill(exitStartX, numTilesY - 1, EXIT_WIDTH, 1, TileLayer.ROAD);
+        }
+        if (MapConnections.getNeighbor(mapName, Direction.LEFT) != null) {
+            tiles.fill(0, exitStartY, 1, EXIT_WIDTH, TileLayer.ROAD);
+        }
+        if (MapConnections.getNeighbor(mapName, Direction.RIGHT) != null) {
+            tiles.fill(numTilesX - 1, exitStartY, 1, EXIT_WIDTH, TileLayer.ROAD);
+        }
+    }
+    
+    /**
+     * 预解码指定边缘附近的地图块，供后台加载时使用
+     * 
+     * @param edge 玩家进入地图时所在的边缘
+     */
+    public void preloadEdge(Direction edge) {
+        int depth = MapChunkStore.DEFAULT_CHUNK_SIZE;
+        switch (edge) {
+            case UP:
+                chunkStore.ensureResident(0, 0, mapWidth, depth);
+                break;
+            case DOWN:
+                chunkStore.ensureResident(0, mapHeight - depth, mapWidth, depth);
+                break;
+            case LEFT:
+                chunkStore.ensureResident(0, 0, depth, mapHeight);
+                break;
+            case RIGHT:
+                chunkStore.ensureResident(mapWidth - depth, 0, depth, mapHeight);
+                break;
         }
     }
     
@@ -279,25 +269,34 @@ public class GameMap {
         // 设置玩家不能超出地图边界
         player.setMapBounds(mapWidth, mapHeight);
         
-        Rectangle playerRect = new Rectangle(player.getX(), player.getY(), player.getWidth(), player.getHeight());
+        int maxTiles = collisionGrid.maxTilesFor(player.getWidth(), player.getHeight());
+        if (blockedTiles.length < maxTiles) {
+            blockedTiles = new int[maxTiles];
+        }
         
-        for(Rectangle obstacle : obstacles) {
-            if(playerRect.intersects(obstacle)) {
-                // 发生碰撞，根据当前速度的反方向移动玩家
-                if(player.getX() + player.getWidth() > obstacle.x && player.getX() < obstacle.x) {
-                    player.setX(obstacle.x - player.getWidth());
-                } else if(player.getX() < obstacle.x + obstacle.width && player.getX() + player.getWidth() > obstacle.x + obstacle.width) {
-                    player.setX(obstacle.x + obstacle.width);
-                }
-                
-                if(player.getY() + player.getHeight() > obstacle.y && player.getY() < obstacle.y) {
-                    player.setY(obstacle.y - player.getHeight());
-                } else if(player.getY() < obstacle.y + obstacle.height && player.getY() + player.getHeight() > obstacle.y + obstacle.height) {
-                    player.setY(obstacle.y + obstacle.height);
-                }
-                
-                player.setMoving(false);
+        // 只查询玩家包围盒下方的瓦片，顺序与原障碍物列表一致（行优先）
+        int count = collisionGrid.queryBlocked(player.getX(), player.getY(),
+                player.getWidth(), player.getHeight(), blockedTiles);
+        int cols = collisionGrid.getCols();
+        
+        for(int i = 0; i < count; i++) {
+            int obstacleX = (blockedTiles[i] % cols) * TILE_SIZE;
+            int obstacleY = (blockedTiles[i] / cols) * TILE_SIZE;
+            
+            // 发生碰撞，根据当前速度的反方向移动玩家
+            if(player.getX() + player.getWidth() > obstacleX && player.getX() < obstacleX) {
+                player.setX(obstacleX - player.getWidth());
+            } else if(player.getX() < obstacleX + TILE_SIZE && player.getX() + player.getWidth() > obstacleX + TILE_SIZE) {
+                player.setX(obstacleX + TILE_SIZE);
             }
+            
+            if(player.getY() + player.getHeight() > obstacleY && player.getY() < obstacleY) {
+                player.setY(obstacleY - player.getHeight());
+            } else if(player.getY() < obstacleY + TILE_SIZE && player.getY() + player.getHeight() > obstacleY + TILE_SIZE) {
+                player.setY(obstacleY + TILE_SIZE);
+            }
+            
+            player.setMoving(false);
         }
     }
     
@@ -308,68 +307,90 @@ public class GameMap {
      * @return 是否在草地上
      */
     public boolean isOnGrass(Player player) {
-        Rectangle playerRect = new Rectangle(player.getX(), player.getY(), player.getWidth(), player.getHeight());
-        
-        for(Rectangle grass : grassAreas) {
-            if(playerRect.intersects(grass)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return collisionGrid.overlapsGrass(player.getX(), player.getY(), player.getWidth(), player.getHeight());
     }
     
     /**
-     * 渲染地图
+     * 渲染地图，只绘制摄像机视口内的部分
      * 
      * @param g 图形对象
+     * @param camera 摄像机
      */
-    public void render(Graphics2D g) {
-        // 绘制地图图片
-        g.drawImage(mapImage, 0, 0, null);
+    public void render(Graphics2D g, Camera camera) {
+        // 只绘制视口内的地图块
+        chunkStore.render(g, camera);
         
         // 如果需要调试碰撞区域，可以绘制网格和碰撞框
-         renderDebugGrid(g);
+         renderDebugGrid(g, camera);
     }
     
     /**
-     * 渲染调试网格（仅用于开发调试）
+     * 渲染调试网格（仅用于开发调试），只处理视口内的瓦片
      * 
      * @param g 图形对象
+     * @param camera 摄像机
      */
-    private void renderDebugGrid(Graphics2D g) {
-        for(int i = 0; i < mapData.length; i++) {
-            for(int j = 0; j < mapData[i].length; j++) {
-                int x = j * TILE_SIZE;
-                int y = i * TILE_SIZE;
+    private void renderDebugGrid(Graphics2D g, Camera camera) {
+        int firstCol = Math.max(0, camera.getX() / TILE_SIZE);
+        int firstRow = Math.max(0, camera.getY() / TILE_SIZE);
+        int lastCol = Math.min(tiles.getCols() - 1, (camera.getX() + camera.getViewportWidth() - 1) / TILE_SIZE);
+        int lastRow = Math.min(tiles.getRows() - 1, (camera.getY() + camera.getViewportHeight() - 1) / TILE_SIZE);
+        
+        for(int i = firstRow; i <= lastRow; i++) {
+            for(int j = firstCol; j <= lastCol; j++) {
+                int x = camera.toScreenX(j * TILE_SIZE);
+                int y = camera.toScreenY(i * TILE_SIZE);
                 
                 // 绘制网格线
                 g.drawRect(x, y, TILE_SIZE, TILE_SIZE);
                 
                 // 根据地图类型绘制调试颜色
-                switch(mapData[i][j]) {
-                    case 1: // 墙壁
+                switch(tiles.getType(j, i)) {
+                    case TileLayer.WALL: // 墙壁
                         g.drawString("墙", x + 10, y + 20);
                         break;
-                    case 2: // 草地
+                    case TileLayer.GRASS: // 草地
                         g.drawString("草", x + 10, y + 20);
                         break;
-                    case 3: // 建筑
+                    case TileLayer.BUILDING: // 建筑
                         g.drawString("建", x + 10, y + 20);
                         break;
                 }
+                
+                // 绘制障碍物和草地区域
+                if (tiles.isSolid(j, i) || tiles.isGrass(j, i)) {
+                    g.drawRect(x, y, TILE_SIZE, TILE_SIZE);
+                }
             }
         }
-        
-        // 绘制障碍物
-        for(Rectangle obstacle : obstacles) {
-            g.drawRect(obstacle.x, obstacle.y, obstacle.width, obstacle.height);
-        }
-        
-        // 绘制草地区域
-        for(Rectangle grass : grassAreas) {
-            g.drawRect(grass.x, grass.y, grass.width, grass.height);
-        }
+    }
+    
+    /**
+     * 获取瓦片碰撞索引
+     */
+    public CollisionGrid getCollisionGrid() {
+        return collisionGrid;
+    }
+    
+    /**
+     * 获取分块地图图片存储，可读取常驻块数量和字节数
+     */
+    public MapChunkStore getChunkStore() {
+        return chunkStore;
+    }
+    
+    /**
+     * 获取瓦片图层
+     */
+    public TileLayer getTiles() {
+        return tiles;
+    }
+    
+    /**
+     * 获取地图名称
+     */
+    public String getMapName() {
+        return mapName;
     }
     
     /**
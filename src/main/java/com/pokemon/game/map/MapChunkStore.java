@@ -0,0 +1,375 @@
+package com.pokemon.game.map;
+
+import com.pokemon.game.util.AssetBundle;
+import com.pokemon.game.util.CompatibleImages;
+import com.pokemon.game.util.ImageCache;
+import com.pokemon.game.util.ImageLoader;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分块地图图片存储
+ * 把地图按固定尺寸切成若干块，只在摄像机附近按需解码，
+ * 并用有字节上限的LRU淘汰不再需要的块，使常驻内存与地图总大小无关
+ */
+public class MapChunkStore {
+
+    // 默认分块尺寸（像素）
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    // 默认常驻字节上限，可通过 -Dpokemon.map.chunkCacheBytes 调整
+    private static final long DEFAULT_MAX_RESIDENT_BYTES =
+            Long.getLong("pokemon.map.chunkCacheBytes", 8L * 1024 * 1024);
+
+    // 资源路径，为null时表示完全从内存中的图片切块
+    private final String path;
+    // 地图在资源包中时从资源包读取，否则从PNG按区域解码
+    private final AssetBundle bundle;
+    private final BufferedImage sourceImage;
+
+    private final int width;
+    private final int height;
+    private final int chunkSize;
+    private final int chunksX;
+    private final int chunksY;
+
+    // 常驻的块，键为 cy * chunksX + cx，按访问顺序排列
+    private final LinkedHashMap<Integer, BufferedImage> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private long maxResidentBytes = DEFAULT_MAX_RESIDENT_BYTES;
+
+    // 解码失败的块，之后不再重试，避免每帧重复解码和输出错误
+    private final BitSet failed = new BitSet();
+
+    // 统计信息
+    private long chunkLoads;
+    private long evictions;
+    private long decodeNanos;
+
+    private MapChunkStore(String path, AssetBundle bundle, BufferedImage sourceImage,
+                          int width, int height, int chunkSize) {
+        this.path = path;
+        this.bundle = bundle;
+        this.sourceImage = sourceImage;
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.chunksX = (width + chunkSize - 1) / chunkSize;
+        this.chunksY = (height + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * 打开资源中的地图图片，只读取图片头获取尺寸，不解码像素
+     *
+     * @param path 图片资源路径
+     * @param chunkSize 分块尺寸
+     * @return 分块存储，无法读取时返回null
+     */
+    public static MapChunkStore open(String path, int chunkSize) {
+        // 资源包中的地图可以直接按区域读取原始像素
+        AssetBundle bundle = AssetBundle.getDefault();
+        AssetBundle.Entry entry = bundle != null ? bundle.getEntry(path) : null;
+        if (entry != null) {
+            return new MapChunkStore(path, bundle, null, entry.width, entry.height, chunkSize);
+        }
+
+        try (InputStream stream = ImageLoader.openResourceStream(path)) {
+            if (stream == null) {
+                return null;
+            }
+            try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+                ImageReader reader = createReader(input);
+                if (reader == null) {
+                    return null;
+                }
+                try {
+                    return new MapChunkStore(path, null, null, reader.getWidth(0), reader.getHeight(0), chunkSize);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("无法读取地图图片信息: " + path);
+            return null;
+        }
+    }
+
+    /**
+     * 从已经解码的图片创建分块存储（用于占位地图）
+     *
+     * @param image 完整图片
+     * @param chunkSize 分块尺寸
+     * @return 分块存储
+     */
+    public static MapChunkStore fromImage(BufferedImage image, int chunkSize) {
+        return new MapChunkStore(null, null, image, image.getWidth(), image.getHeight(), chunkSize);
+    }
+
+    private static ImageReader createReader(ImageInputStream input) {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    /**
+     * 确保与指定区域相交的块都已常驻，缺失的块合并为一次区域解码
+     *
+     * @param x 区域左上角X坐标
+     * @param y 区域左上角Y坐标
+     * @param w 区域宽度
+     * @param h 区域高度
+     */
+    public synchronized void ensureResident(int x, int y, int w, int h) {
+        int firstCx = Math.max(0, x / chunkSize);
+        int firstCy = Math.max(0, y / chunkSize);
+        int lastCx = Math.min(chunksX - 1, (x + w - 1) / chunkSize);
+        int lastCy = Math.min(chunksY - 1, (y + h - 1) / chunkSize);
+
+        // 找出缺失块的包围范围
+        int missFirstCx = Integer.MAX_VALUE, missFirstCy = Integer.MAX_VALUE;
+        int missLastCx = -1, missLastCy = -1;
+        for (int cy = firstCy; cy <= lastCy; cy++) {
+            for (int cx = firstCx; cx <= lastCx; cx++) {
+                int key = cy * chunksX + cx;
+                if (!chunks.containsKey(key) && !failed.get(key)) {
+                    missFirstCx = Math.min(missFirstCx, cx);
+                    missFirstCy = Math.min(missFirstCy, cy);
+                    missLastCx = Math.max(missLastCx, cx);
+                    missLastCy = Math.max(missLastCy, cy);
+                }
+            }
+        }
+
+        if (missLastCx >= 0) {
+            loadChunks(missFirstCx, missFirstCy, missLastCx, missLastCy);
+        }
+    }
+
+    /**
+     * 获取指定的块，未常驻时立即解码
+     *
+     * @param cx 块列号
+     * @param cy 块行号
+     * @return 块图片，解码失败时返回null
+     */
+    public synchronized BufferedImage getChunk(int cx, int cy) {
+        int key = cy * chunksX + cx;
+        BufferedImage chunk = chunks.get(key);
+        if (chunk == null && !failed.get(key)) {
+            loadChunks(cx, cy, cx, cy);
+            chunk = chunks.get(key);
+        }
+        return chunk;
+    }
+
+    /**
+     * 解码一组相邻的块并放入缓存
+     */
+    private void loadChunks(int firstCx, int firstCy, int lastCx, int lastCy) {
+        long start = System.nanoTime();
+
+        Rectangle region = new Rectangle(firstCx * chunkSize, firstCy * chunkSize,
+                Math.min(width, (lastCx + 1) * chunkSize) - firstCx * chunkSize,
+                Math.min(height, (lastCy + 1) * chunkSize) - firstCy * chunkSize);
+
+        BufferedImage decoded = decodeRegion(region);
+        if (decoded == null) {
+            for (int cy = firstCy; cy <= lastCy; cy++) {
+                for (int cx = firstCx; cx <= lastCx; cx++) {
+                    int key = cy * chunksX + cx;
+                    if (!chunks.containsKey(key)) {
+                        failed.set(key);
+                    }
+                }
+            }
+            return;
+        }
+
+        for (int cy = firstCy; cy <= lastCy; cy++) {
+            for (int cx = firstCx; cx <= lastCx; cx++) {
+                int key = cy * chunksX + cx;
+                if (chunks.containsKey(key)) {
+                    continue;
+                }
+                int offsetX = cx * chunkSize - region.x;
+                int offsetY = cy * chunkSize - region.y;
+                int chunkW = Math.min(chunkSize, width - cx * chunkSize);
+                int chunkH = Math.min(chunkSize, height - cy * chunkSize);
+
+                BufferedImage chunk = copyRegion(decoded, offsetX, offsetY, chunkW, chunkH);
+                chunks.put(key, chunk);
+                residentBytes += ImageCache.byteSize(chunk);
+                chunkLoads++;
+            }
+        }
+
+        decodeNanos += System.nanoTime() - start;
+        evictIfNeeded();
+    }
+
+    /**
+     * 只解码图片中的指定区域
+     */
+    private BufferedImage decodeRegion(Rectangle region) {
+        if (path == null) {
+            return sourceImage.getSubimage(region.x, region.y, region.width, region.height);
+        }
+        if (bundle != null) {
+            return bundle.getRegion(path, region);
+        }
+
+        try (InputStream stream = ImageLoader.openResourceStream(path)) {
+            if (stream == null) {
+                System.err.println("地图图片资源不存在: " + path);
+                return null;
+            }
+            try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+                ImageReader reader = createReader(input);
+                if (reader == null) {
+                    return null;
+                }
+                try {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceRegion(region);
+                    return reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("无法解码地图分块: " + path + " " + region);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 复制出独立的块图片，避免块之间共享同一个大栅格导致无法回收；
+     * 复制的同时转换为屏幕兼容格式
+     */
+    private static BufferedImage copyRegion(BufferedImage source, int x, int y, int w, int h) {
+        BufferedImage chunk = CompatibleImages.createCompatibleImage(w, h, source.getTransparency());
+        Graphics2D g = chunk.createGraphics();
+        g.drawImage(source, -x, -y, null);
+        g.dispose();
+        return chunk;
+    }
+
+    /**
+     * 按LRU顺序淘汰块，直到常驻字节数不超过上限
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Integer, BufferedImage>> iterator = chunks.entrySet().iterator();
+        while (residentBytes > maxResidentBytes && iterator.hasNext()) {
+            Map.Entry<Integer, BufferedImage> eldest = iterator.next();
+            residentBytes -= ImageCache.byteSize(eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * 绘制摄像机视口内的块
+     *
+     * @param g 图形对象
+     * @param camera 摄像机
+     */
+    public void render(Graphics2D g, Camera camera) {
+        int viewX = camera.getX();
+        int viewY = camera.getY();
+        int viewW = camera.getViewportWidth();
+        int viewH = camera.getViewportHeight();
+
+        // 预先解码视口周围半个块范围内的内容，减少移动时的临时解码
+        int margin = chunkSize / 2;
+        ensureResident(viewX - margin, viewY - margin, viewW + margin * 2, viewH + margin * 2);
+
+        int firstCx = Math.max(0, viewX / chunkSize);
+        int firstCy = Math.max(0, viewY / chunkSize);
+        int lastCx = Math.min(chunksX - 1, (viewX + viewW - 1) / chunkSize);
+        int lastCy = Math.min(chunksY - 1, (viewY + viewH - 1) / chunkSize);
+
+        for (int cy = firstCy; cy <= lastCy; cy++) {
+            for (int cx = firstCx; cx <= lastCx; cx++) {
+                BufferedImage chunk = getChunk(cx, cy);
+                if (chunk != null) {
+                    g.drawImage(chunk, camera.toScreenX(cx * chunkSize), camera.toScreenY(cy * chunkSize), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * 释放全部常驻块
+     */
+    public synchronized void clear() {
+        chunks.clear();
+        residentBytes = 0;
+    }
+
+    public synchronized void setMaxResidentBytes(long maxResidentBytes) {
+        this.maxResidentBytes = maxResidentBytes;
+        evictIfNeeded();
+    }
+
+    public synchronized long getMaxResidentBytes() {
+        return maxResidentBytes;
+    }
+
+    /**
+     * 获取常驻块数量
+     */
+    public synchronized int getResidentChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * 获取常驻块占用的字节数
+     */
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized long getChunkLoads() {
+        return chunkLoads;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
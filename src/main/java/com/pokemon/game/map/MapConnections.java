@@ -0,0 +1,87 @@
+package com.pokemon.game.map;
+
+import com.pokemon.game.entity.Player.Direction;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 地图连接表，记录每张地图四个方向上相邻的地图
+ */
+public class MapConnections {
+
+    private static final Map<String, EnumMap<Direction, String>> CONNECTIONS = new HashMap<>();
+
+    static {
+        connect("真心镇", Direction.UP, "101号道路");
+        connect("101号道路", Direction.UP, "古辰镇");
+        connect("古辰镇", Direction.UP, "103号道路");
+        connect("古辰镇", Direction.LEFT, "102号道路");
+        connect("102号道路", Direction.LEFT, "城华市");
+        connect("城华市", Direction.LEFT, "104号道路");
+        connect("104号道路", Direction.UP, "城华森林");
+    }
+
+    /**
+     * 双向连接两张地图
+     *
+     * @param from 起点地图
+     * @param direction 从起点出发的方向
+     * @param to 相邻地图
+     */
+    private static void connect(String from, Direction direction, String to) {
+        neighborsOf(from).put(direction, to);
+        neighborsOf(to).put(opposite(direction), from);
+    }
+
+    private static EnumMap<Direction, String> neighborsOf(String mapName) {
+        EnumMap<Direction, String> neighbors = CONNECTIONS.get(mapName);
+        if (neighbors == null) {
+            neighbors = new EnumMap<>(Direction.class);
+            CONNECTIONS.put(mapName, neighbors);
+        }
+        return neighbors;
+    }
+
+    /**
+     * 获取地图的规范名称，"town"是真心镇的别名
+     *
+     * @param mapName 地图名称
+     * @return 规范名称
+     */
+    public static String canonicalName(String mapName) {
+        if ("town".equalsIgnoreCase(mapName)) {
+            return "真心镇";
+        }
+        return mapName;
+    }
+
+    /**
+     * 获取指定方向上相邻的地图
+     *
+     * @param mapName 地图名称
+     * @param direction 方向
+     * @return 相邻地图名称，没有连接时返回null
+     */
+    public static String getNeighbor(String mapName, Direction direction) {
+        EnumMap<Direction, String> neighbors = CONNECTIONS.get(canonicalName(mapName));
+        return neighbors == null ? null : neighbors.get(direction);
+    }
+
+    /**
+     * 获取相反方向
+     */
+    public static Direction opposite(Direction direction) {
+        switch (direction) {
+            case UP:
+                return Direction.DOWN;
+            case DOWN:
+                return Direction.UP;
+            case LEFT:
+                return Direction.RIGHT;
+            default:
+                return Direction.LEFT;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.pokemon.game.map;
+
+import com.pokemon.game.entity.Player.Direction;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 异步地图加载器
+ * 在后台线程中构建相邻地图（读取图片、生成瓦片图层和碰撞索引、预解码入口附近的地图块），
+ * 游戏线程切换地图时直接取用已经准备好的结果，避免切换时卡顿
+ */
+public class MapLoader {
+
+    private final ExecutorService executor;
+
+    // 已提交或已完成的地图，键为规范地图名称
+    private final Map<String, Future<GameMap>> pending = new ConcurrentHashMap<>();
+
+    public MapLoader() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MapLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 在后台预加载地图，重复调用不会重复加载
+     *
+     * @param mapName 地图名称
+     * @param entryEdge 玩家进入新地图时所在的边缘，用于预解码该边附近的地图块
+     */
+    public void prefetch(String mapName, Direction entryEdge) {
+        String key = MapConnections.canonicalName(mapName);
+        if (pending.containsKey(key)) {
+            return;
+        }
+
+        FutureTask<GameMap> task = new FutureTask<>(new Callable<GameMap>() {
+            @Override
+            public GameMap call() {
+                GameMap map = new GameMap(key);
+                map.preloadEdge(entryEdge);
+                return map;
+            }
+        });
+
+        if (pending.putIfAbsent(key, task) == null) {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * 把已经构建好的地图放回加载器，例如离开某张地图时保留它以便快速返回
+     *
+     * @param map 地图
+     */
+    public void offer(GameMap map) {
+        FutureTask<GameMap> done = new FutureTask<>(() -> map);
+        done.run();
+        pending.put(MapConnections.canonicalName(map.getMapName()), done);
+    }
+
+    /**
+     * 判断地图是否已经加载完成
+     *
+     * @param mapName 地图名称
+     * @return 是否可以立即取用
+     */
+    public boolean isReady(String mapName) {
+        Future<GameMap> future = pending.get(MapConnections.canonicalName(mapName));
+        return future != null && future.isDone();
+    }
+
+    /**
+     * 取出地图，尚未预加载时在后台提交，尚未完成时等待其完成
+     *
+     * @param mapName 地图名称
+     * @param entryEdge 玩家进入新地图时所在的边缘
+     * @return 加载完成的地图
+     */
+    public GameMap take(String mapName, Direction entryEdge) {
+        String key = MapConnections.canonicalName(mapName);
+        prefetch(key, entryEdge);
+
+        Future<GameMap> future = pending.remove(key);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new GameMap(key);
+        } catch (ExecutionException e) {
+            System.err.println("后台加载地图失败: " + key);
+            e.getCause().printStackTrace();
+            return new GameMap(key);
+        }
+    }
+
+    /**
+     * 丢弃除指定地图以外的预加载结果，释放内存
+     * 还在排队的构建会被取消，不会占用后台线程，让玩家正在走向的地图尽快开始构建
+     *
+     * @param keepNames 需要保留的地图名称
+     */
+    public void retainOnly(String... keepNames) {
+        pending.entrySet().removeIf(entry -> {
+            for (String keep : keepNames) {
+                if (entry.getKey().equals(MapConnections.canonicalName(keep))) {
+                    return false;
+                }
+            }
+            entry.getValue().cancel(false);
+            return true;
+        });
+    }
+
+    /**
+     * 关闭后台线程
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,163 @@
+package com.pokemon.game.map;
+
+import java.util.BitSet;
+
+/**
+ * 紧凑的瓦片图层，按行优先顺序存储
+ * 每个瓦片用一个字节保存类型，另外为障碍、草地、建筑各维护一个BitSet，
+ * 内存占用只与瓦片数量成正比，没有逐瓦片的对象开销
+ */
+public class TileLayer {
+
+    // 瓦片类型
+    public static final byte ROAD = 0;
+    public static final byte WALL = 1;
+    public static final byte GRASS = 2;
+    public static final byte BUILDING = 3;
+
+    private final int cols;
+    private final int rows;
+
+    // 瓦片类型，下标为 row * cols + col
+    private final byte[] types;
+
+    // 瓦片属性
+    private final BitSet solid;
+    private final BitSet grass;
+    private final BitSet building;
+
+    /**
+     * 创建一个全部为道路的图层
+     *
+     * @param cols 列数
+     * @param rows 行数
+     */
+    public TileLayer(int cols, int rows) {
+        this.cols = Math.max(0, cols);
+        this.rows = Math.max(0, rows);
+
+        int size = this.cols * this.rows;
+        types = new byte[size];
+        solid = new BitSet(size);
+        grass = new BitSet(size);
+        building = new BitSet(size);
+    }
+
+    /**
+     * 判断格子是否在图层范围内
+     */
+    public boolean contains(int col, int row) {
+        return col >= 0 && col < cols && row >= 0 && row < rows;
+    }
+
+    /**
+     * 计算格子的下标
+     */
+    public int index(int col, int row) {
+        return row * cols + col;
+    }
+
+    /**
+     * 获取瓦片类型，越界时返回道路
+     */
+    public byte getType(int col, int row) {
+        if (!contains(col, row)) {
+            return ROAD;
+        }
+        return types[index(col, row)];
+    }
+
+    /**
+     * 按下标获取瓦片类型
+     */
+    public byte getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * 设置瓦片类型并同步更新属性位，越界时忽略
+     *
+     * @param col 列
+     * @param row 行
+     * @param type 瓦片类型
+     */
+    public void setType(int col, int row, byte type) {
+        if (!contains(col, row)) {
+            return;
+        }
+
+        int index = index(col, row);
+        types[index] = type;
+        // 墙壁和建筑是障碍物
+        solid.set(index, type == WALL || type == BUILDING);
+        grass.set(index, type == GRASS);
+        building.set(index, type == BUILDING);
+    }
+
+    /**
+     * 用同一种类型填充矩形区域，超出图层的部分会被裁剪
+     *
+     * @param col 起始列
+     * @param row 起始行
+     * @param width 宽度（格子数）
+     * @param height 高度（格子数）
+     * @param type 瓦片类型
+     */
+    public void fill(int col, int row, int width, int height, byte type) {
+        int endCol = Math.min(cols, col + width);
+        int endRow = Math.min(rows, row + height);
+        for (int r = Math.max(0, row); r < endRow; r++) {
+            for (int c = Math.max(0, col); c < endCol; c++) {
+                setType(c, r, type);
+            }
+        }
+    }
+
+    public boolean isSolid(int col, int row) {
+        return contains(col, row) && solid.get(index(col, row));
+    }
+
+    public boolean isGrass(int col, int row) {
+        return contains(col, row) && grass.get(index(col, row));
+    }
+
+    public boolean isBuilding(int col, int row) {
+        return contains(col, row) && building.get(index(col, row));
+    }
+
+    /**
+     * 获取障碍物属性位，下标为 row * cols + col
+     */
+    public BitSet getSolidBits() {
+        return solid;
+    }
+
+    /**
+     * 获取草地属性位，下标为 row * cols + col
+     */
+    public BitSet getGrassBits() {
+        return grass;
+    }
+
+    /**
+     * 获取建筑属性位，下标为 row * cols + col
+     */
+    public BitSet getBuildingBits() {
+        return building;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * 估算图层占用的字节数（类型数组加三个属性位集）
+     */
+    public long getMemoryBytes() {
+        return types.length + (solid.size() + grass.size() + building.size()) / 8L;
+    }
+}
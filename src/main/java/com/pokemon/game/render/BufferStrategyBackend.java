@@ -0,0 +1,130 @@
+package com.pokemon.game.render;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import java.awt.Canvas;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowFocusListener;
+import java.awt.image.BufferStrategy;
+import java.util.function.Consumer;
+
+/**
+ * 主动渲染后端
+ * 使用Canvas的三重缓冲BufferStrategy，由游戏线程直接翻页，支持按地图大小调整窗口
+ */
+public class BufferStrategyBackend implements RenderBackend {
+
+    private JFrame frame;
+    private Canvas canvas;
+
+    // 画面当前大小
+    private volatile int width;
+    private volatile int height;
+
+    @Override
+    public void open(String title, int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        frame = new JFrame(title);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setResizable(false);
+
+        // 创建画布，焦点留给窗口以便接收键盘事件
+        canvas = new Canvas();
+        setCanvasSize(width, height);
+        canvas.setFocusable(false);
+        canvas.setIgnoreRepaint(true);
+
+        frame.add(canvas);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    private void setCanvasSize(int width, int height) {
+        Dimension size = new Dimension(width, height);
+        canvas.setPreferredSize(size);
+        canvas.setMaximumSize(size);
+        canvas.setMinimumSize(size);
+    }
+
+    @Override
+    public void addKeyListener(KeyListener listener) {
+        frame.addKeyListener(listener);
+    }
+
+    @Override
+    public void addWindowFocusListener(WindowFocusListener listener) {
+        frame.addWindowFocusListener(listener);
+    }
+
+    @Override
+    public void present(Consumer<Graphics2D> renderer) {
+        // 获取画布的缓冲策略
+        BufferStrategy bs = canvas.getBufferStrategy();
+
+        // 如果缓冲策略为空，创建一个三重缓冲
+        if (bs == null) {
+            canvas.createBufferStrategy(3);
+            return;
+        }
+
+        // 缓冲区内容可能丢失（显存被回收），丢失或恢复时重绘整帧
+        do {
+            do {
+                Graphics2D g = (Graphics2D) bs.getDrawGraphics();
+                try {
+                    g.clearRect(0, 0, width, height);
+                    renderer.accept(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (bs.contentsRestored());
+
+            bs.show();
+        } while (bs.contentsLost());
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+
+        SwingUtilities.invokeLater(() -> {
+            setCanvasSize(width, height);
+            frame.pack();
+            frame.setLocationRelativeTo(null); // 窗口居中
+        });
+    }
+
+    @Override
+    public void setTitle(String title) {
+        SwingUtilities.invokeLater(() -> frame.setTitle(title));
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        frame.dispose();
+    }
+}
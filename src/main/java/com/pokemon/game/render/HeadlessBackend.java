@@ -0,0 +1,109 @@
+package com.pokemon.game.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowFocusListener;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * 无显示渲染后端
+ * 绘制到离屏的BufferedImage，不需要窗口和显示设备，可在CI或服务器上以不限速方式运行
+ */
+public class HeadlessBackend implements RenderBackend {
+
+    private final boolean renderFrames;
+
+    private BufferedImage image;
+    private int width;
+    private int height;
+
+    /**
+     * 创建无显示后端，默认每帧都执行渲染代码
+     */
+    public HeadlessBackend() {
+        this(true);
+    }
+
+    /**
+     * 创建无显示后端
+     *
+     * @param renderFrames 是否执行渲染，为false时只推进逻辑
+     */
+    public HeadlessBackend(boolean renderFrames) {
+        this.renderFrames = renderFrames;
+    }
+
+    @Override
+    public void open(String title, int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Override
+    public void addKeyListener(KeyListener listener) {
+        // 没有窗口，不接收键盘事件
+    }
+
+    @Override
+    public void addWindowFocusListener(WindowFocusListener listener) {
+        // 没有窗口，不会失去焦点
+    }
+
+    @Override
+    public void present(Consumer<Graphics2D> renderer) {
+        if (!renderFrames) {
+            return;
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            renderer.accept(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        open(null, width, height);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        // 没有窗口
+    }
+
+    /**
+     * 获取最近一帧的画面，可用于截图比对
+     */
+    public BufferedImage getFrame() {
+        return image;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        image = null;
+    }
+}
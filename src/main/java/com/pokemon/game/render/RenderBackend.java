@@ -0,0 +1,72 @@
+package com.pokemon.game.render;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowFocusListener;
+import java.util.function.Consumer;
+
+/**
+ * 渲染后端，负责窗口（或离屏缓冲）的创建、每帧的绘制与呈现
+ * GameHost通过它与具体的显示方式解耦
+ */
+public interface RenderBackend {
+
+    /**
+     * 创建窗口或离屏缓冲
+     *
+     * @param title 窗口标题
+     * @param width 画面宽度
+     * @param height 画面高度
+     */
+    void open(String title, int width, int height);
+
+    /**
+     * 注册键盘监听，无窗口的后端忽略
+     *
+     * @param listener 键盘监听器
+     */
+    void addKeyListener(KeyListener listener);
+
+    /**
+     * 注册窗口焦点监听，无窗口的后端忽略
+     *
+     * @param listener 窗口焦点监听器
+     */
+    void addWindowFocusListener(WindowFocusListener listener);
+
+    /**
+     * 绘制并呈现一帧，后端负责缓冲区内容丢失时的重绘
+     *
+     * @param renderer 绘制回调
+     */
+    void present(Consumer<Graphics2D> renderer);
+
+    /**
+     * 调整画面尺寸，不支持调整的后端忽略
+     *
+     * @param width 新宽度
+     * @param height 新高度
+     */
+    void resize(int width, int height);
+
+    /**
+     * 设置窗口标题，无窗口的后端忽略
+     *
+     * @param title 标题
+     */
+    void setTitle(String title);
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * 是否无需显示设备，无显示的后端以不限速方式运行
+     */
+    boolean isHeadless();
+
+    /**
+     * 释放窗口和缓冲区
+     */
+    void close();
+}
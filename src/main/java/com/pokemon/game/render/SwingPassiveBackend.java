@@ -0,0 +1,169 @@
+package com.pokemon.game.render;
+
+import com.pokemon.game.util.CompatibleImages;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowFocusListener;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.function.Consumer;
+
+/**
+ * Swing被动渲染后端
+ * 游戏线程绘制到后备缓冲（优先VolatileImage），再请求JPanel重绘，由事件分发线程贴到屏幕上；
+ * 两个线程通过bufferLock互斥访问后备缓冲，事件分发线程不会贴出画了一半的帧
+ */
+public class SwingPassiveBackend implements RenderBackend {
+
+    private JFrame frame;
+    private JPanel panel;
+
+    private int width;
+    private int height;
+
+    // 后备缓冲：优先使用可加速的VolatileImage，无法创建时退回兼容格式的BufferedImage
+    private VolatileImage volatileImage;
+    private BufferedImage image;
+    private final Object bufferLock = new Object();
+
+    @Override
+    public void open(String title, int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        frame = new JFrame(title);
+        frame.setSize(width, height);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setResizable(false);
+        frame.setLocationRelativeTo(null);
+
+        panel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                synchronized (bufferLock) {
+                    if (volatileImage != null) {
+                        // 显存内容丢失时跳过这一帧，下一帧会重新绘制
+                        if (!volatileImage.contentsLost()) {
+                            g.drawImage(volatileImage, 0, 0, null);
+                        }
+                    } else if (image != null) {
+                        g.drawImage(image, 0, 0, null);
+                    }
+                }
+            }
+        };
+
+        frame.add(panel);
+        frame.setVisible(true);
+
+        synchronized (bufferLock) {
+            volatileImage = CompatibleImages.createVolatileImage(width, height);
+            if (volatileImage == null) {
+                image = CompatibleImages.createCompatibleImage(width, height, Transparency.OPAQUE);
+            }
+        }
+    }
+
+    @Override
+    public void addKeyListener(KeyListener listener) {
+        frame.addKeyListener(listener);
+    }
+
+    @Override
+    public void addWindowFocusListener(WindowFocusListener listener) {
+        frame.addWindowFocusListener(listener);
+    }
+
+    @Override
+    public void present(Consumer<Graphics2D> renderer) {
+        synchronized (bufferLock) {
+            if (volatileImage == null) {
+                Graphics2D g = image.createGraphics();
+                try {
+                    clear(g);
+                    renderer.accept(g);
+                } finally {
+                    g.dispose();
+                }
+            } else {
+                // VolatileImage的内容可能随时丢失（切换显示模式、锁屏等），丢失后重绘整帧
+                do {
+                    validateVolatileImage();
+                    Graphics2D g = volatileImage.createGraphics();
+                    try {
+                        clear(g);
+                        renderer.accept(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (volatileImage.contentsLost());
+            }
+        }
+
+        panel.repaint();
+    }
+
+    /**
+     * 检查VolatileImage是否仍然可用，与当前显示配置不兼容时重新创建
+     * 调用时必须持有bufferLock
+     */
+    private void validateVolatileImage() {
+        GraphicsConfiguration gc = frame.getGraphicsConfiguration();
+        if (gc == null) {
+            return;
+        }
+        if (volatileImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            volatileImage.flush();
+            volatileImage = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+        }
+    }
+
+    private void clear(Graphics2D g) {
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        // 被动渲染窗口大小固定
+    }
+
+    @Override
+    public void setTitle(String title) {
+        SwingUtilities.invokeLater(() -> frame.setTitle(title));
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        synchronized (bufferLock) {
+            if (volatileImage != null) {
+                volatileImage.flush();
+            }
+        }
+        frame.dispose();
+    }
+}
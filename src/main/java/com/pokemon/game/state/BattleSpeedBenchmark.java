@@ -0,0 +1,62 @@
+package com.pokemon.game.state;
+
+import com.pokemon.game.GameLoop;
+import com.pokemon.game.battle.BattleSpeed;
+import com.pokemon.game.input.InputState;
+import com.pokemon.game.input.Key;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 战斗速度基准测试
+ * 用相同的随机种子在各个速度下从地图上连续进入若干场战斗（每两步按一次回车：每回合选择"战斗"，结束后立即返回），
+ * 输出每场战斗的平均逻辑步数和按60步/秒换算的时长，并检查各速度下的战斗结果完全一致
+ * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.state.BattleSpeedBenchmark" -Dexec.args="50"
+ */
+public class BattleSpeedBenchmark {
+
+    // 单场战斗的逻辑步上限，防止卡住
+    private static final int TICK_LIMIT = 100000;
+
+    public static void main(String[] args) {
+        int encounters = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        if (System.getProperty("pokemon.seed") == null) {
+            System.setProperty("pokemon.seed", "2024");
+        }
+
+        List<String> baseline = null;
+        double baselineTicks = 0;
+        for (BattleSpeed speed : BattleSpeed.values()) {
+            GameStateManager gsm = new GameStateManager(null);
+            gsm.setBattleSpeed(speed);
+            gsm.setState(GameStateManager.PLAY_STATE);
+            BattleState battle = (BattleState) gsm.getGameState(GameStateManager.BATTLE_STATE);
+
+            // 每场的结果和玩家剩余HP
+            List<String> outcomes = new ArrayList<>();
+            InputState input = gsm.getInput();
+            for (int i = 0; i < encounters; i++) {
+                gsm.pushState(GameStateManager.BATTLE_STATE);
+                int ticks = 0;
+                while (gsm.getCurrentState() == GameStateManager.BATTLE_STATE && ticks < TICK_LIMIT) {
+                    input.beginTick();
+                    input.apply(Key.ENTER, ticks % 2 == 0, System.nanoTime());
+                    gsm.update();
+                    ticks++;
+                }
+                outcomes.add(battle.getOutcome() + ":" + battle.getPlayerHp());
+            }
+
+            double ticks = battle.getAverageEncounterTicks();
+            if (baseline == null) {
+                baseline = outcomes;
+                baselineTicks = ticks;
+            }
+            System.out.printf("%-8s 平均每场 %6.1f 步（%.2f 秒），加速 %s，结果%s%n",
+                    speed.getLabel(), ticks, ticks / GameLoop.DEFAULT_UPS,
+                    ticks > 0 ? String.format("%.1fx", baselineTicks / ticks) : "-",
+                    outcomes.equals(baseline) ? "与1x一致" : "与1x不一致！");
+        }
+    }
+}
@@ -1,35 +1,67 @@
 package com.pokemon.game.state;
 
-import com.pokemon.game.battle.BattleSystem;
+import com.pokemon.game.battle.BallImages;
+import com.pokemon.game.battle.BattleCore;
+import com.pokemon.game.battle.BattleMachine;
+import com.pokemon.game.battle.BattleSpeed;
+import com.pokemon.game.data.GameDatabase;
 import com.pokemon.game.entity.Pokemon;
+import com.pokemon.game.input.InputState;
+import com.pokemon.game.input.Key;
+import com.pokemon.game.util.GameRandom;
 import com.pokemon.game.util.ImageLoader;
-import com.pokemon.game.util.KeyHandler;
+import com.pokemon.game.util.IndexedSprite;
 
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * 宝可梦战斗状态
+ * 战斗逻辑由BattleMachine结算，这里只负责把玩家的选择转换成指令，
+ * 并按时间线逐拍显示战斗信息和播放精灵球动画
  */
 public class BattleState extends GameState {
     
-    private enum BattlePhase {
-        START, PLAYER_TURN, ENEMY_TURN, CAPTURE, WIN, LOSE, END
-    }
+    // 遇到闪光宝可梦的概率为 1/SHINY_ODDS
+    private static final int SHINY_ODDS = 8192;
     
-    private BattlePhase currentPhase;
     private int currentChoice = 0;
     private String[] options = {"战斗", "捕捉", "道具", "逃跑"};
     
     private Pokemon playerPokemon; // 皮卡丘
     private Pokemon enemyPokemon;  // 随机敌方宝可梦
-    private BattleSystem battleSystem;
+    private BallImages ballImages;     // 精灵球图片，在prepare中创建
+    private BattleMachine machine; // 战斗逻辑
+    private BattleCore core;       // 战斗中的数值和事件
+    private GameDatabase database;
+    
+    // 遭遇随机数流（种类、等级、闪光），伤害和捕获流由BattleMachine使用
+    private SplittableRandom encounterRandom;
     
+    // 战斗信息：显示core中的一段事件，第一次绘制时才格式化成文字
     private String battleMessage = "";
-    private int messageTimer = 0;
+    private int messageFrom;
+    private int messageTo;
+    
+    // 战斗速度，只影响播放时长
+    private BattleSpeed speed;
+    
+    // 正在播放的拍
+    private boolean playingBeat;
+    private int beatBaseTicks; // 1倍速下的时长
+    private int beatTicks;     // 当前速度下的时长
+    private int beatElapsed;
+    private int beatAnimation;
+    
+    // 每场战斗的用时统计
+    private int battleTicks;
+    private long encounterStartNanos;
+    private int encounters;
+    private long totalEncounterTicks;
+    private long totalEncounterNanos;
     
     // 战斗界面背景
     private BufferedImage battleBackground;
@@ -38,13 +70,28 @@ public class BattleState extends GameState {
     private String currentBallType = "poke_ball";
     private BufferedImage pokeBallImage;
     private int ballX, ballY;
-    private int ballAnimationStep = 0;
     private boolean showBallAnimation = false;
     
     public BattleState(GameStateManager gsm) {
         super(gsm);
-        battleSystem = new BattleSystem();
-        loadImages();
+        GameRandom random = gsm.getRandom();
+        encounterRandom = random.stream(GameRandom.Stream.ENCOUNTER);
+        database = GameDatabase.get();
+        machine = new BattleMachine(database, random);
+        core = machine.getCore();
+        speed = gsm.getBattleSpeed();
+    }
+    
+    @Override
+    public void prepare() {
+        // 图片只在第一场战斗前加载一次，这里可能在工作线程中执行，不能使用随机数
+        if (ballImages == null) {
+            ballImages = new BallImages();
+        }
+        if (battleBackground == null) {
+            loadImages();
+        }
+        pokeBallImage = ballImages.getBallImage(currentBallType);
     }
     
     /**
@@ -53,189 +100,210 @@ public class BattleState extends GameState {
     private void loadImages() {
         // 尝试加载战斗背景图片
         // 注意：我们使用正确的路径格式，不要以/开头
-        battleBackground = ImageLoader.loadImage("image/battle/background.png");
+        battleBackground = ImageLoader.loadPinnedImage("image/battle/background.png");
         
         // 如果无法加载战斗背景，创建一个默认的
         if (battleBackground == null) {
-            battleBackground = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g = battleBackground.createGraphics();
-            g.setColor(new Color(200, 255, 200)); // 浅绿色背景
-            g.fillRect(0, 0, 800, 600);
-            g.dispose();
+            // 纯色背景只需要一种颜色，用调色板格式保存
+            int[] palette = {new Color(200, 255, 200).getRGB()}; // 浅绿色背景
+            battleBackground = IndexedSprite.create(800, 600, palette, g -> { }).getImage();
         }
     }
     
     @Override
     public void init() {
         // 初始化玩家的皮卡丘
-        playerPokemon = new Pokemon("皮卡丘", 25, 100, 10, 5);
-        
-        // 随机生成敌方宝可梦
-        String[] pokemonNames = {"小火龙", "杰尼龟", "妙蛙种子", "可达鸭", "喵喵"};
-        Random random = new Random();
-        String enemyName = pokemonNames[random.nextInt(pokemonNames.length)];
-        int enemyLevel = random.nextInt(10) + 10; // 10-20级
+        playerPokemon = Pokemon.createStarter();
         
-        enemyPokemon = new Pokemon(enemyName, enemyLevel, 80, 8, 3);
+        // 按草丛遭遇表随机生成敌方宝可梦
+        int slot = database.pickEncounter(GameDatabase.AREA_GRASS,
+                encounterRandom.nextInt(database.getEncounterWeight(GameDatabase.AREA_GRASS)));
+        int enemyLevel = database.getEncounterMinLevel(slot)
+                + encounterRandom.nextInt(database.getEncounterLevelRange(slot));
         
-        currentPhase = BattlePhase.START;
-        battleMessage = "野生的" + enemyPokemon.getName() + "出现了！";
-        messageTimer = 60; // 约1秒
+        enemyPokemon = new Pokemon(database.getEncounterSpecies(slot), enemyLevel);
+        enemyPokemon.setShiny(encounterRandom.nextInt(SHINY_ODDS) == 0);
         
-        // 获取精灵球图片
-        pokeBallImage = battleSystem.getBallImage(currentBallType);
+        // 双方数值放入战斗核心，槽位分别为PLAYER和ENEMY
+        machine.start(playerPokemon, enemyPokemon);
+        battleTicks = 0;
+        encounterStartNanos = System.nanoTime();
+        machine.setBallItem(database.findItem(currentBallType));
+        currentChoice = 0;
+        playingBeat = false;
+        showBallAnimation = false;
+
     }
     
     @Override
     public void update() {
-        if(messageTimer > 0) {
-            messageTimer--;
-            if(messageTimer == 0 && currentPhase == BattlePhase.START) {
-                currentPhase = BattlePhase.PLAYER_TURN;
-                battleMessage = "请选择行动！";
+        battleTicks++;
+        
+        // 播放当前拍
+        if (playingBeat) {
+            beatElapsed++;
+            updateAnimation();
+            if (beatElapsed < beatTicks) {
+                return;
             }
-            return;
+            playingBeat = false;
         }
         
-        // 更新精灵球动画
-        if (showBallAnimation) {
-            updateBallAnimation();
-            return;
+        // 开始下一拍；不需要停留的拍（提示语、立即模式）在同一步内连续播放，信息合并显示
+        int from = -1;
+        while (machine.hasBeat()) {
+            if (from < 0) {
+                from = machine.getBeatFrom();
+            }
+            startBeat(from);
+            if (playingBeat) {
+                return;
+            }
         }
         
-        switch(currentPhase) {
-            case PLAYER_TURN:
+        // 时间线播放完毕
+        switch (machine.getPhase()) {
+            case AWAITING_COMMAND:
                 handlePlayerTurn();
                 break;
-            case ENEMY_TURN:
-                enemyAction();
-                break;
-            case CAPTURE:
-                attemptCapture();
-                break;
-            case WIN:
-            case LOSE:
-                if(KeyHandler.ENTER) {
-                    gsm.setState(GameStateManager.PLAY_STATE);
+            case WON:
+            case CAPTURED:
+            case LOST:
+                if(gsm.getInput().isPressed(Key.ENTER)) {
+                    finishEncounter();
                 }
                 break;
+            case FLED:
+                finishEncounter();
+                break;
             default:
                 break;
         }
     }
     
     /**
-     * 更新精灵球动画
+     * 从时间线取出下一拍并开始播放，停留时长按战斗速度缩短
+     * 
+     * @param from 要显示的起始事件
      */
-    private void updateBallAnimation() {
-        ballAnimationStep++;
+    private void startBeat(int from) {
+        showEvents(from, machine.getBeatTo());
+        beatBaseTicks = machine.getBeatTicks();
+        beatTicks = speed.scale(beatBaseTicks);
+        beatAnimation = machine.getBeatAnimation();
+        beatElapsed = 0;
+        machine.nextBeat();
         
-        // 简单的抛物线轨迹
-        if (ballAnimationStep < 30) {
-            ballX += 10;
-            ballY = 350 - (int)(20 * Math.sin(ballAnimationStep * Math.PI / 30));
-        } else if (ballAnimationStep < 40) {
-            // 到达目标位置后摇晃
-        } else if (ballAnimationStep < 60) {
-            // 决定捕获结果
-            if (ballAnimationStep == 40) {
-                double captureRate = battleSystem.calculateCaptureRate(enemyPokemon, currentBallType);
-                boolean success = Math.random() < captureRate;
-                
-                if (success) {
-                    battleMessage = "恭喜！捕获了" + enemyPokemon.getName() + "！";
-                    currentPhase = BattlePhase.WIN;
-                } else {
-                    battleMessage = enemyPokemon.getName() + "挣脱了出来！";
-                    currentPhase = BattlePhase.ENEMY_TURN;
-                }
-            }
-        } else {
-            // 结束动画
-            showBallAnimation = false;
-            messageTimer = 60;
+        playingBeat = beatTicks > 0;
+        showBallAnimation = playingBeat && beatAnimation != BattleMachine.ANIM_NONE;
+        updateAnimation();
+    }
+    
+    /**
+     * 更新精灵球动画，按1倍速下的进度计算位置
+     */
+    private void updateAnimation() {
+        int step = beatTicks > 0 ? beatElapsed * beatBaseTicks / beatTicks : beatBaseTicks;
+        switch (beatAnimation) {
+            case BattleMachine.ANIM_BALL_THROW:
+                // 简单的抛物线轨迹，之后停在目标位置摇晃
+                int flight = Math.min(step, 29);
+                ballX = 200 + flight * 10;
+                ballY = 350 - (int)(20 * Math.sin(flight * Math.PI / 30));
+                break;
+            case BattleMachine.ANIM_BALL_RESULT:
+                // 显示结果时精灵球再停留一会儿
+                showBallAnimation = step < 20;
+                break;
+            default:
+                showBallAnimation = false;
+                break;
         }
     }
     
+    /**
+     * 结束本场战斗，记录用时并回到被暂停的地图
+     */
+    private void finishEncounter() {
+        long nanos = System.nanoTime() - encounterStartNanos;
+        encounters++;
+        totalEncounterTicks += battleTicks;
+        totalEncounterNanos += nanos;
+        System.out.printf("战斗结束（%s）: 本场 %d 步 / %.2f 秒，平均每场 %.2f 秒%n",
+                speed.getLabel(), battleTicks, nanos / 1e9, getAverageEncounterSeconds());
+        gsm.popState();
+    }
+    
     private void handlePlayerTurn() {
         // 选择菜单
-        if(KeyHandler.UP && currentChoice > 0) {
+        InputState input = gsm.getInput();
+        if(input.isPressed(Key.UP) && currentChoice > 0) {
             currentChoice--;
         }
-        if(KeyHandler.DOWN && currentChoice < options.length - 1) {
+        if(input.isPressed(Key.DOWN) && currentChoice < options.length - 1) {
             currentChoice++;
         }
         
-        if(KeyHandler.ENTER) {
-            switch(currentChoice) {
-                case 0: // 战斗
-                    battleMessage = playerPokemon.getName() + "使用了电击！";
-                    int damage = battleSystem.calculateDamage(playerPokemon, enemyPokemon);
-                    enemyPokemon.takeDamage(damage);
-                    battleMessage += "造成了" + damage + "点伤害！";
-                    messageTimer = 60;
-                    
-                    if(enemyPokemon.getHp() <= 0) {
-                        currentPhase = BattlePhase.WIN;
-                        battleMessage = "你打败了" + enemyPokemon.getName() + "！";
-                        messageTimer = 120;
-                    } else {
-                        currentPhase = BattlePhase.ENEMY_TURN;
-                    }
-                    break;
-                case 1: // 捕捉
-                    startBallAnimation();
-                    battleMessage = "你投出了精灵球！";
-                    break;
-                case 2: // 道具
-                    battleMessage = "你使用了药水，恢复了一些HP！";
-                    playerPokemon.heal(20);
-                    messageTimer = 60;
-                    currentPhase = BattlePhase.ENEMY_TURN;
-                    break;
-                case 3: // 逃跑
-                    battleMessage = "成功逃跑！";
-                    messageTimer = 60;
-                    currentPhase = BattlePhase.END;
-                    break;
-            }
+        if(input.isPressed(Key.ENTER)) {
+            // 菜单顺序与指令编号一致：战斗、捕捉、道具、逃跑
+            machine.submit(currentChoice);
         }
     }
     
     /**
-     * 开始精灵球动画
+     * 显示一段战斗事件
      */
-    private void startBallAnimation() {
-        showBallAnimation = true;
-        ballAnimationStep = 0;
-        ballX = 200; // 起始X位置
-        ballY = 350; // 起始Y位置
-        
-        // 获取当前使用的精灵球
-        currentBallType = "poke_ball"; // 默认使用普通精灵球
-        pokeBallImage = battleSystem.getBallImage(currentBallType);
+    private void showEvents(int from, int to) {
+        messageFrom = from;
+        messageTo = to;
+        battleMessage = null;
     }
     
-    private void enemyAction() {
-        if(messageTimer == 0) {
-            battleMessage = enemyPokemon.getName() + "发起了攻击！";
-            int damage = battleSystem.calculateDamage(enemyPokemon, playerPokemon);
-            playerPokemon.takeDamage(damage);
-            battleMessage += "造成了" + damage + "点伤害！";
-            messageTimer = 60;
-            
-            if(playerPokemon.getHp() <= 0) {
-                currentPhase = BattlePhase.LOSE;
-                battleMessage = "皮卡丘失去了战斗能力！";
-                messageTimer = 120;
-            } else {
-                currentPhase = BattlePhase.PLAYER_TURN;
-            }
+    private String getBattleMessage() {
+        if (battleMessage == null) {
+            battleMessage = core.formatEvents(messageFrom, messageTo);
         }
+        return battleMessage;
+    }
+    
+    public BattleSpeed getSpeed() {
+        return speed;
     }
     
-    private void attemptCapture() {
-        startBallAnimation();
+    public void setSpeed(BattleSpeed speed) {
+        this.speed = speed;
+    }
+    
+    /**
+     * 获取当前（或上一场）战斗的结果
+     */
+    public BattleMachine.Phase getOutcome() {
+        return machine.getPhase();
+    }
+    
+    /**
+     * 获取当前（或上一场）战斗中玩家宝可梦的HP
+     */
+    public int getPlayerHp() {
+        return core.getHp(BattleCore.PLAYER);
+    }
+    
+    public int getEncounters() {
+        return encounters;
+    }
+    
+    /**
+     * 平均每场战斗的逻辑步数（从遇敌到返回地图）
+     */
+    public double getAverageEncounterTicks() {
+        return encounters > 0 ? totalEncounterTicks / (double) encounters : 0;
+    }
+    
+    /**
+     * 平均每场战斗的实际用时（秒）
+     */
+    public double getAverageEncounterSeconds() {
+        return encounters > 0 ? totalEncounterNanos / 1e9 / encounters : 0;
     }
     
     @Override
@@ -250,8 +318,8 @@ public class BattleState extends GameState {
         playerPokemon.render(g, 200, 300, false);
         
         // 绘制HP条
-        drawHealthBar(g, enemyPokemon, 580, 150);
-        drawHealthBar(g, playerPokemon, 180, 300);
+        drawHealthBar(g, BattleCore.ENEMY, 580, 150);
+        drawHealthBar(g, BattleCore.PLAYER, 180, 300);
         
         // 绘制战斗信息框
         g.setColor(Color.WHITE);
@@ -261,10 +329,10 @@ public class BattleState extends GameState {
         
         // 绘制战斗信息
         g.setFont(new Font("黑体", Font.PLAIN, 20));
-        g.drawString(battleMessage, 20, 480);
+        g.drawString(getBattleMessage(), 20, 480);
         
         // 如果是玩家的回合，绘制选项
-        if(currentPhase == BattlePhase.PLAYER_TURN && messageTimer == 0 && !showBallAnimation) {
+        if(machine.getPhase() == BattleMachine.Phase.AWAITING_COMMAND && !playingBeat && !machine.hasBeat()) {
             g.setFont(new Font("黑体", Font.PLAIN, 18));
             for(int i = 0; i < options.length; i++) {
                 if(i == currentChoice) {
@@ -282,7 +350,7 @@ public class BattleState extends GameState {
         }
     }
     
-    private void drawHealthBar(Graphics2D g, Pokemon pokemon, int x, int y) {
+    private void drawHealthBar(Graphics2D g, int slot, int x, int y) {
         int width = 150;
         int height = 10;
         
@@ -291,7 +359,7 @@ public class BattleState extends GameState {
         g.fillRect(x, y, width, height);
         
         // 计算健康百分比
-        double healthPercent = pokemon.getHp() / (double)pokemon.getMaxHp();
+        double healthPercent = core.getHp(slot) / (double)core.getMaxHp(slot);
         int healthWidth = (int)(width * healthPercent);
         
         // 根据健康值设置颜色
@@ -309,10 +377,10 @@ public class BattleState extends GameState {
         // 绘制健康值文本
         g.setColor(Color.BLACK);
         g.setFont(new Font("黑体", Font.PLAIN, 12));
-        g.drawString(pokemon.getHp() + "/" + pokemon.getMaxHp(), x + width + 5, y + 10);
+        g.drawString(core.getHp(slot) + "/" + core.getMaxHp(slot), x + width + 5, y + 10);
         
         // 绘制宝可梦名称和等级
         g.setFont(new Font("黑体", Font.PLAIN, 14));
-        g.drawString(pokemon.getName() + " Lv." + pokemon.getLevel(), x, y - 5);
+        g.drawString(core.getName(slot) + " Lv." + core.getLevel(slot), x, y - 5);
     }
 } 
\ No newline at end of file
@@ -13,6 +13,11 @@ public abstract class GameState {
         this.gsm = gsm;
     }
     
+    // 准备状态需要的资源（读取图片、构建地图等），可能在工作线程中执行，之后才在游戏线程调用init。
+    // 这里只能准备与游戏逻辑无关的数据，不能使用随机数或修改其他状态
+    public void prepare() {
+    }
+    
     // 初始化状态
     public abstract void init();
     
@@ -21,4 +26,17 @@ public abstract class GameState {
     
     // 渲染状态
     public abstract void render(Graphics2D g);
+    
+    // 有其他状态压在上面时调用，状态保留，之后不再更新和渲染，直到onResume
+    public void onSuspend() {
+    }
+    
+    // 压在上面的状态弹出后调用，从暂停的地方继续
+    public void onResume() {
+    }
+    
+    // 按插值比例渲染状态，alpha为当前时间在上一逻辑步与下一逻辑步之间的比例
+    public void render(Graphics2D g, double alpha) {
+        render(g);
+    }
 } 
\ No newline at end of file
@@ -1,46 +1,355 @@
 package com.pokemon.game.state;
 
-import com.pokemon.game.GameWindow;
+import com.pokemon.game.GameHost;
+import com.pokemon.game.battle.BattleSpeed;
+import com.pokemon.game.input.InputState;
+import com.pokemon.game.map.GameMap;
+import com.pokemon.game.util.AssetPreloader;
+import com.pokemon.game.util.GameRandom;
 
 import java.awt.Graphics2D;
-import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 游戏状态管理器，负责管理不同游戏场景的切换
+ * 状态在第一次使用时才创建，创建后一直保留。当前状态保存在一个栈中：
+ * setState清空栈并重新初始化目标状态，pushState把战斗这类临时场景压在当前状态之上，
+ * 被压住的状态暂停但保留地图和玩家，popState后从原处继续，不需要重新构建。
+ * 打开异步切换后，目标状态的prepare在工作线程中执行，期间由LoadingState更新并叠加在当前画面上，
+ * 准备完成后在游戏线程中完成切换并调用init。回放和录制时关闭异步切换，切换总在请求的那一步完成，结果与机器快慢无关
  */
 public class GameStateManager {
 
-    private GameWindow gameWindow;
+    private GameHost host;
+    
+    // 游戏线程使用的随机数服务
+    private GameRandom random;
+    
+    // 本逻辑步的输入快照，由宿主在每步开始时从输入队列更新
+    private final InputState input = new InputState();
 
-    // 游戏状态列表
-    private ArrayList<GameState> gameStates;
-    private int currentState;
+    // 新建战斗状态时使用的战斗速度
+    private BattleSpeed battleSpeed = BattleSpeed.fromSystemProperty();
     
     // 游戏状态常量
     public static final int MENU_STATE = 0;
     public static final int PLAY_STATE = 1;
     public static final int BATTLE_STATE = 2;
+    private static final int STATE_COUNT = 3;
     
-    public GameStateManager(GameWindow gameWindow) {
-        this.gameWindow = gameWindow;
-        gameStates = new ArrayList<GameState>();
-        currentState = MENU_STATE;
-        
-        gameStates.add(new MenuState(this));
-        gameStates.add(new PlayState(this));
-        gameStates.add(new BattleState(this));
+    // 已创建的游戏状态，按状态常量索引，未使用过的为null
+    private final GameState[] gameStates = new GameState[STATE_COUNT];
+    
+    // 状态栈，栈顶为当前状态
+    private final int[] stack = new int[STATE_COUNT];
+    private int depth;
+    
+    // 异步切换：准备资源的工作线程池（第一次异步切换时创建）和正在进行的切换
+    private boolean asyncTransitions;
+    private ExecutorService transitionExecutor;
+    private LoadingState loadingState;
+    private int pendingState = -1;
+    private boolean pendingPush;
+    private Future<?> pendingPrepare;
+    private long transitionStartNanos;
+    
+    // 切换耗时统计（从请求切换到目标状态init完成）
+    private int transitions;
+    private long totalTransitionNanos;
+    private long maxTransitionNanos;
+    private long lastTransitionNanos;
+    
+    public GameStateManager(GameHost host) {
+        this(host, GameRandom.fromSystemProperty());
+    }
+    
+    /**
+     * @param host 游戏宿主，可以为null
+     * @param random 随机数服务，回放录像时使用录像中的种子
+     */
+    public GameStateManager(GameHost host, GameRandom random) {
+        this.host = host;
+        this.random = random;
+        stack[depth++] = MENU_STATE;
     }
     
+    /**
+     * 创建状态实例，只在第一次使用时调用
+     */
+    private GameState createState(int state) {
+        switch (state) {
+            case MENU_STATE:
+                return new MenuState(this);
+            case PLAY_STATE:
+                return new PlayState(this);
+            case BATTLE_STATE:
+                return new BattleState(this);
+            default:
+                throw new IllegalArgumentException("未知的游戏状态: " + state);
+        }
+    }
+    
+    /**
+     * 切换到指定状态：清空状态栈，目标状态重新初始化
+     * 
+     * @param state 状态常量
+     */
     public void setState(int state) {
-        currentState = state;
-        gameStates.get(currentState).init();
+        beginTransition(state, false);
+    }
+    
+    /**
+     * 把状态压在当前状态之上并初始化，当前状态暂停但保留
+     * 
+     * @param state 状态常量，不能已经在栈中
+     */
+    public void pushState(int state) {
+        for (int i = 0; i < depth; i++) {
+            if (stack[i] == state) {
+                throw new IllegalStateException("游戏状态已在栈中: " + state);
+            }
+        }
+        beginTransition(state, true);
+    }
+    
+    /**
+     * 开始切换：同步模式下立即准备并完成，异步模式下把prepare交给工作线程
+     */
+    private void beginTransition(int state, boolean push) {
+        if (pendingState >= 0) {
+            System.err.println("正在切换到状态" + pendingState + "，忽略切换到状态" + state + "的请求");
+            return;
+        }
+        GameState target = getGameState(state);
+        transitionStartNanos = System.nanoTime();
+        if (!asyncTransitions) {
+            target.prepare();
+            completeTransition(state, push);
+            return;
+        }
+        
+        if (transitionExecutor == null) {
+            transitionExecutor = Executors.newFixedThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "StateLoader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            loadingState = new LoadingState(this);
+        }
+        pendingState = state;
+        pendingPush = push;
+        pendingPrepare = transitionExecutor.submit(target::prepare);
+        loadingState.init();
+    }
+    
+    /**
+     * 在游戏线程中完成切换：调整状态栈并初始化目标状态
+     */
+    private void completeTransition(int state, boolean push) {
+        if (push) {
+            top().onSuspend();
+        } else {
+            depth = 0;
+        }
+        stack[depth++] = state;
+        getGameState(state).init();
+        
+        lastTransitionNanos = System.nanoTime() - transitionStartNanos;
+        transitions++;
+        totalTransitionNanos += lastTransitionNanos;
+        maxTransitionNanos = Math.max(maxTransitionNanos, lastTransitionNanos);
+    }
+    
+    /**
+     * 检查异步切换的准备是否完成，完成时在游戏线程中完成切换
+     * 
+     * @return 是否还在切换中
+     */
+    private boolean pollTransition() {
+        if (pendingState < 0) {
+            return false;
+        }
+        if (!pendingPrepare.isDone()) {
+            return true;
+        }
+        try {
+            pendingPrepare.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 准备失败时init会自行加载或使用占位资源
+            System.err.println("准备游戏状态" + pendingState + "失败: " + e.getCause());
+        }
+        int state = pendingState;
+        pendingState = -1;
+        pendingPrepare = null;
+        completeTransition(state, pendingPush);
+        System.out.printf("切换到状态%d用时 %.1f 毫秒（加载画面 %d 帧）%n", state, lastTransitionNanos / 1e6,
+                loadingState.getTicks());
+        return false;
+    }
+    
+    /**
+     * 是否正在进行异步切换
+     */
+    public boolean isTransitioning() {
+        return pendingState >= 0;
+    }
+    
+    /**
+     * 打开或关闭异步切换，默认关闭
+     */
+    public void setAsyncTransitions(boolean asyncTransitions) {
+        this.asyncTransitions = asyncTransitions;
+    }
+    
+    public int getTransitionCount() {
+        return transitions;
+    }
+    
+    public double getLastTransitionMillis() {
+        return lastTransitionNanos / 1e6;
+    }
+    
+    public double getAverageTransitionMillis() {
+        return transitions > 0 ? totalTransitionNanos / 1e6 / transitions : 0;
+    }
+    
+    public double getMaxTransitionMillis() {
+        return maxTransitionNanos / 1e6;
+    }
+    
+    /**
+     * 弹出当前状态，回到下面被暂停的状态
+     */
+    public void popState() {
+        if (depth <= 1) {
+            throw new IllegalStateException("状态栈中只有一个状态，不能弹出");
+        }
+        depth--;
+        top().onResume();
+    }
+    
+    private GameState top() {
+        return getGameState(stack[depth - 1]);
+    }
+    
+    public int getCurrentState() {
+        return stack[depth - 1];
+    }
+    
+    /**
+     * 状态栈的深度
+     */
+    public int getStackDepth() {
+        return depth;
+    }
+    
+    /**
+     * 获取状态实例，没有创建过时先创建
+     * 
+     * @param state 状态常量
+     */
+    public GameState getGameState(int state) {
+        GameState gameState = gameStates[state];
+        if (gameState == null) {
+            gameState = createState(state);
+            gameStates[state] = gameState;
+        }
+        return gameState;
+    }
+    
+    /**
+     * 状态是否已经创建
+     */
+    public boolean isCreated(int state) {
+        return gameStates[state] != null;
     }
     
     public void update() {
-        gameStates.get(currentState).update();
+        // 切换期间当前状态暂停，只更新加载画面
+        if (pollTransition()) {
+            loadingState.update();
+            return;
+        }
+        top().update();
     }
     
     public void render(Graphics2D g) {
-        gameStates.get(currentState).render(g);
+        render(g, 1.0);
+    }
+    
+    public void render(Graphics2D g, double alpha) {
+        top().render(g, alpha);
+        if (pendingState >= 0) {
+            loadingState.render(g);
+        }
+    }
+    
+    /**
+     * 通知宿主当前地图已切换，支持的渲染后端会据此调整画面大小
+     * 
+     * @param map 新地图
+     */
+    public void onMapChanged(GameMap map) {
+        if (host != null) {
+            host.setCurrentMap(map);
+        }
+    }
+    
+    /**
+     * 获取画面宽度，没有宿主时使用默认值
+     */
+    public int getViewportWidth() {
+        return host != null ? host.getWidth() : GameHost.WIDTH;
+    }
+    
+    /**
+     * 获取画面高度，没有宿主时使用默认值
+     */
+    public int getViewportHeight() {
+        return host != null ? host.getHeight() : GameHost.HEIGHT;
+    }
+    
+    /**
+     * 获取本逻辑步的输入快照
+     */
+    public InputState getInput() {
+        return input;
+    }
+    
+    public GameRandom getRandom() {
+        return random;
+    }
+    
+    /**
+     * 新建战斗状态时使用的战斗速度，默认读取 -Dpokemon.battle.speed
+     */
+    public BattleSpeed getBattleSpeed() {
+        return battleSpeed;
+    }
+    
+    /**
+     * 设置战斗速度，已创建的战斗状态也会改用这个速度
+     */
+    public void setBattleSpeed(BattleSpeed battleSpeed) {
+        this.battleSpeed = battleSpeed;
+        if (isCreated(BATTLE_STATE)) {
+            ((BattleState) gameStates[BATTLE_STATE]).setSpeed(battleSpeed);
+        }
+    }
+    
+    /**
+     * 获取资源预加载器，没有宿主或没有预加载时返回null
+     */
+    public AssetPreloader getPreloader() {
+        return host != null ? host.getPreloader() : null;
+    }
+    
+    public GameHost getHost() {
+        return host;
     }
 } 
\ No newline at end of file
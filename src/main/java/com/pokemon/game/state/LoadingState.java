@@ -0,0 +1,60 @@
+package com.pokemon.game.state;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+
+/**
+ * 状态切换时的加载画面
+ * 目标状态在工作线程中准备资源时，由GameStateManager代替当前状态更新，
+ * 并在暂停的当前状态画面上叠加一层半透明的提示，不加载任何资源，保证切换期间帧率不受影响
+ */
+public class LoadingState extends GameState {
+    
+    private static final Font FONT = new Font("黑体", Font.PLAIN, 14);
+    private static final AlphaComposite DIM = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
+    
+    // 加载开始后经过的逻辑步数，用于绘制动画
+    private int ticks;
+    
+    public LoadingState(GameStateManager gsm) {
+        super(gsm);
+    }
+    
+    @Override
+    public void init() {
+        ticks = 0;
+    }
+    
+    @Override
+    public void update() {
+        ticks++;
+    }
+    
+    public int getTicks() {
+        return ticks;
+    }
+    
+    @Override
+    public void render(Graphics2D g) {
+        int width = gsm.getViewportWidth();
+        int height = gsm.getViewportHeight();
+        
+        Composite composite = g.getComposite();
+        g.setComposite(DIM);
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(composite);
+        
+        // 每15步多显示一个点
+        StringBuilder text = new StringBuilder("加载中");
+        for (int i = 0; i < ticks / 15 % 4; i++) {
+            text.append('.');
+        }
+        g.setColor(Color.WHITE);
+        g.setFont(FONT);
+        g.drawString(text.toString(), width / 2 - 30, height / 2);
+    }
+}
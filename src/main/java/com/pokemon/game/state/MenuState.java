@@ -1,6 +1,8 @@
 package com.pokemon.game.state;
 
-import com.pokemon.game.util.KeyHandler;
+import com.pokemon.game.util.AssetPreloader;
+import com.pokemon.game.input.InputState;
+import com.pokemon.game.input.Key;
 
 import java.awt.Color;
 import java.awt.Font;
@@ -26,17 +28,26 @@ public class MenuState extends GameState {
     @Override
     public void update() {
         // 处理键盘输入
-        if(KeyHandler.UP && currentChoice > 0) {
+        InputState input = gsm.getInput();
+        if(input.isPressed(Key.UP) && currentChoice > 0) {
             currentChoice--;
         }
-        if(KeyHandler.DOWN && currentChoice < options.length - 1) {
+        if(input.isPressed(Key.DOWN) && currentChoice < options.length - 1) {
             currentChoice++;
         }
-        if(KeyHandler.ENTER) {
+        if(input.isPressed(Key.ENTER) && isLoaded()) {
             selectOption();
         }
     }
     
+    /**
+     * 资源是否已经预加载完成，没有预加载器时视为已完成
+     */
+    private boolean isLoaded() {
+        AssetPreloader preloader = gsm.getPreloader();
+        return preloader == null || preloader.isDone();
+    }
+    
     private void selectOption() {
         if(currentChoice == 0) {
             // 开始游戏
@@ -58,6 +69,13 @@ public class MenuState extends GameState {
         g.setFont(new Font("黑体", Font.BOLD, 24));
         g.drawString("口袋妖怪绿宝石", 50, 75);
         
+        // 资源还在加载时显示进度条
+        AssetPreloader preloader = gsm.getPreloader();
+        if (preloader != null && !preloader.isDone()) {
+            renderProgress(g, preloader);
+            return;
+        }
+        
         // 绘制选项
         g.setFont(new Font("黑体", Font.PLAIN, 14));
         for(int i = 0; i < options.length; i++) {
@@ -69,4 +87,25 @@ public class MenuState extends GameState {
             g.drawString(options[i], 120, 120 + i * 20);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 绘制资源加载进度
+     */
+    private void renderProgress(Graphics2D g, AssetPreloader preloader) {
+        int barX = 60;
+        int barY = 130;
+        int barWidth = 200;
+        int barHeight = 10;
+        
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(barX, barY, barWidth, barHeight);
+        g.setColor(Color.GREEN);
+        g.fillRect(barX, barY, (int) (barWidth * preloader.getProgress()), barHeight);
+        g.setColor(Color.WHITE);
+        g.drawRect(barX, barY, barWidth, barHeight);
+        
+        g.setFont(new Font("黑体", Font.PLAIN, 12));
+        g.drawString("正在加载资源... " + preloader.getCompletedCount() + "/" + preloader.getTotalCount(),
+                barX, barY - 8);
+    }
+}
@@ -1,12 +1,18 @@
 package com.pokemon.game.state;
 
 import com.pokemon.game.entity.Player;
+import com.pokemon.game.entity.Player.Direction;
+import com.pokemon.game.input.InputState;
+import com.pokemon.game.input.Key;
+import com.pokemon.game.map.Camera;
 import com.pokemon.game.map.GameMap;
-import com.pokemon.game.util.KeyHandler;
+import com.pokemon.game.map.MapConnections;
+import com.pokemon.game.map.MapLoader;
+import com.pokemon.game.util.GameRandom;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * 游戏主状态，玩家在地图上移动
@@ -15,54 +21,91 @@ public class PlayState extends GameState {
     
     private Player player;
     private GameMap gameMap;
-    private Random random;
+    private Camera camera;
+    private MapLoader mapLoader;
+    private SplittableRandom random; // 遭遇随机数流
+    private GameMap preparedMap;     // prepare中构建好的起始地图
     
     // 遇到宝可梦的几率 (1/encounterRate)
     private final int encounterRate = 1;
     
-    // 上次检查遇敌的时间，用于控制检查频率
-    private long lastEncounterCheck = 0;
-    private static final long ENCOUNTER_CHECK_INTERVAL = 500; // 毫秒
+    // 距上次检查遇敌经过的逻辑步数，用于控制检查频率。
+    // 按步数而不是系统时间计算，同样的输入总是得到同样的遭遇，录像才能准确回放
+    private int ticksSinceEncounterCheck = ENCOUNTER_CHECK_INTERVAL;
+    private static final int ENCOUNTER_CHECK_INTERVAL = 30; // 逻辑步，60步/秒时为500毫秒
+    
+    // 距离地图边缘多少像素时开始在后台预加载相邻地图
+    private static final int PREFETCH_DISTANCE = 96;
     
     public PlayState(GameStateManager gsm) {
         super(gsm);
-        random = new Random();
+        random = gsm.getRandom().stream(GameRandom.Stream.ENCOUNTER);
+        camera = new Camera(gsm.getViewportWidth(), gsm.getViewportHeight());
+        mapLoader = new MapLoader();
+    }
+    
+    @Override
+    public void prepare() {
+        preparedMap = new GameMap("town");
     }
     
     @Override
     public void init() {
         player = new Player(100, 100);
-        gameMap = new GameMap("town");
+        gameMap = preparedMap != null ? preparedMap : new GameMap("town");
+        preparedMap = null;
+        gsm.onMapChanged(gameMap);
+        camera.setWorldBounds(gameMap.getMapWidth(), gameMap.getMapHeight());
+        camera.follow(player);
+    }
+    
+    @Override
+    public void onResume() {
+        // 战斗期间没有更新，避免渲染插值从战斗前的位置开始
+        player.syncPreviousPosition();
     }
     
     @Override
     public void update() {
+        // 记录上一步的位置，用于渲染插值
+        player.syncPreviousPosition();
+        
         // 处理玩家移动
         handlePlayerMovement();
         
+        // 靠近边缘时预加载相邻地图，走出边缘时切换地图
+        checkMapEdges();
+        
+        // 玩家动画更新后会清除移动标记，遇敌检查需要用更新前的值
+        boolean moved = player.isMoving();
+        
         // 更新玩家动画
         player.update();
         
+        // 摄像机跟随玩家
+        camera.follow(player);
+        
         // 检查是否遇到宝可梦
-        checkPokemonEncounter();
+        checkPokemonEncounter(moved);
         
         // 检查ESC按键返回菜单
-        if (KeyHandler.ESC) {
+        if (gsm.getInput().isPressed(Key.ESC)) {
             gsm.setState(GameStateManager.MENU_STATE);
         }
     }
     
     private void handlePlayerMovement() {
-        if(KeyHandler.UP) {
+        InputState input = gsm.getInput();
+        if(input.isDown(Key.UP)) {
             player.moveUp();
         }
-        if(KeyHandler.DOWN) {
+        if(input.isDown(Key.DOWN)) {
             player.moveDown();
         }
-        if(KeyHandler.LEFT) {
+        if(input.isDown(Key.LEFT)) {
             player.moveLeft();
         }
-        if(KeyHandler.RIGHT) {
+        if(input.isDown(Key.RIGHT)) {
             player.moveRight();
         }
         
@@ -70,36 +113,149 @@ public class PlayState extends GameState {
         gameMap.checkCollision(player);
     }
     
-    private void checkPokemonEncounter() {
-        long currentTime = System.currentTimeMillis();
+    /**
+     * 检查玩家与地图边缘的距离
+     */
+    private void checkMapEdges() {
+        InputState input = gsm.getInput();
+        int distanceUp = player.getY();
+        int distanceDown = gameMap.getMapHeight() - (player.getY() + player.getHeight());
+        int distanceLeft = player.getX();
+        int distanceRight = gameMap.getMapWidth() - (player.getX() + player.getWidth());
+        
+        prefetchIfNear(Direction.UP, distanceUp);
+        prefetchIfNear(Direction.DOWN, distanceDown);
+        prefetchIfNear(Direction.LEFT, distanceLeft);
+        prefetchIfNear(Direction.RIGHT, distanceRight);
+        
+        if (distanceUp <= 0 && input.isDown(Key.UP)) {
+            changeMap(Direction.UP);
+        } else if (distanceDown <= 0 && input.isDown(Key.DOWN)) {
+            changeMap(Direction.DOWN);
+        } else if (distanceLeft <= 0 && input.isDown(Key.LEFT)) {
+            changeMap(Direction.LEFT);
+        } else if (distanceRight <= 0 && input.isDown(Key.RIGHT)) {
+            changeMap(Direction.RIGHT);
+        }
+    }
+    
+    /**
+     * 玩家接近某条边时在后台预加载那一侧的相邻地图
+     */
+    private void prefetchIfNear(Direction edge, int distance) {
+        if (distance > PREFETCH_DISTANCE) {
+            return;
+        }
+        String neighbor = MapConnections.getNeighbor(gameMap.getMapName(), edge);
+        if (neighbor != null) {
+            mapLoader.prefetch(neighbor, MapConnections.opposite(edge));
+        }
+    }
+    
+    /**
+     * 切换到相邻地图
+     * 新地图通常已在后台构建完成，这里只做一次引用替换；
+     * 如果预加载尚未完成则等待它，保证切换总是发生在同一帧
+     * 
+     * @param edge 玩家走出的边
+     */
+    private void changeMap(Direction edge) {
+        String neighbor = MapConnections.getNeighbor(gameMap.getMapName(), edge);
+        if (neighbor == null) {
+            return;
+        }
+        
+        Direction entryEdge = MapConnections.opposite(edge);
+        GameMap previous = gameMap;
+        GameMap next = mapLoader.take(neighbor, entryEdge);
         
+        // 保留刚离开的地图，便于立即返回
+        mapLoader.offer(previous);
+        gameMap = next;
+        gsm.onMapChanged(gameMap);
+        
+        // 把玩家放到新地图对应边的出口处
+        int width = gameMap.getMapWidth();
+        int height = gameMap.getMapHeight();
+        switch (entryEdge) {
+            case UP:
+                player.setX(width / 2 - player.getWidth() / 2);
+                player.setY(0);
+                break;
+            case DOWN:
+                player.setX(width / 2 - player.getWidth() / 2);
+                player.setY(height - player.getHeight());
+                break;
+            case LEFT:
+                player.setX(0);
+                player.setY(height / 2 - player.getHeight() / 2);
+                break;
+            case RIGHT:
+                player.setX(width - player.getWidth());
+                player.setY(height / 2 - player.getHeight() / 2);
+                break;
+        }
+        player.setMapBounds(width, height);
+        player.syncPreviousPosition();
+        
+        camera.setWorldBounds(width, height);
+        camera.follow(player);
+        
+        // 只保留新地图的相邻地图
+        String mapName = gameMap.getMapName();
+        mapLoader.retainOnly(
+                String.valueOf(MapConnections.getNeighbor(mapName, Direction.UP)),
+                String.valueOf(MapConnections.getNeighbor(mapName, Direction.DOWN)),
+                String.valueOf(MapConnections.getNeighbor(mapName, Direction.LEFT)),
+                String.valueOf(MapConnections.getNeighbor(mapName, Direction.RIGHT)));
+    }
+    
+    private void checkPokemonEncounter(boolean moved) {
         // 限制检查频率，避免过于频繁的检查
-        if (currentTime - lastEncounterCheck < ENCOUNTER_CHECK_INTERVAL) {
+        if (++ticksSinceEncounterCheck < ENCOUNTER_CHECK_INTERVAL) {
             return;
         }
         
         // 玩家在草地上有几率遇到宝可梦
-        if(gameMap.isOnGrass(player) && player.isMoving()) {
+        if(gameMap.isOnGrass(player) && moved) {
             if(random.nextInt(encounterRate) == 0) {
-                // 切换到战斗状态
-                gsm.setState(GameStateManager.BATTLE_STATE);
+                // 战斗压在地图之上，结束后地图和玩家原样保留
+                gsm.pushState(GameStateManager.BATTLE_STATE);
             }
         }
         
-        lastEncounterCheck = currentTime;
+        ticksSinceEncounterCheck = 0;
+    }
+    
+    public Player getPlayer() {
+        return player;
+    }
+    
+    public GameMap getGameMap() {
+        return gameMap;
     }
     
     @Override
     public void render(Graphics2D g) {
-        // 绘制地图
-        gameMap.render(g);
+        render(g, 1.0);
+    }
+    
+    @Override
+    public void render(Graphics2D g, double alpha) {
+        // 视口大小跟随画面，摄像机跟随玩家插值后的位置
+        camera.setViewportSize(gsm.getViewportWidth(), gsm.getViewportHeight());
+        camera.centerOn(player.getRenderX(alpha) + player.getWidth() / 2,
+                player.getRenderY(alpha) + player.getHeight() / 2);
+        
+        // 绘制地图（只绘制视口内的部分）
+        gameMap.render(g, camera);
         
         // 绘制玩家
-        player.render(g);
+        player.render(g, camera, alpha);
         
         // 绘制界面信息
         g.setColor(Color.WHITE);
-        g.drawString("真心镇", 20, 20);
+        g.drawString(MapConnections.canonicalName(gameMap.getMapName()), 20, 20);
         g.drawString("按ESC返回菜单", 650, 20);
     }
 } 
\ No newline at end of file
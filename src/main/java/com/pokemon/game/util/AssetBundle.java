@@ -0,0 +1,438 @@
+package com.pokemon.game.util;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 资源包
+ * 把src/main/resources下的所有PNG预先解码成原始像素，连同索引写进一个文件。
+ * 运行时通过NIO内存映射读取，创建图片只需要一次批量复制，不再需要逐个查找文件和PNG解压。
+ *
+ * 文件格式（大端序）：
+ *   头部：魔数"PKAB"、版本、条目数、源图片数、源图片最新修改时间
+ *   索引：每个条目为 路径(UTF-8，2字节长度前缀)、格式、宽、高、调色板颜色数、数据偏移、数据长度
+ *   数据：每个条目按8字节对齐，调色板图片先存调色板（每色4字节ARGB），再存每像素1字节的索引；
+ *         其他图片存每像素4字节的ARGB（不透明图片格式记为RGB，读取时不带透明通道）
+ *
+ * 生成方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.util.AssetBundle"
+ */
+public class AssetBundle {
+
+    // 格式
+    public static final byte FORMAT_ARGB = 0;
+    public static final byte FORMAT_INDEXED = 1;
+    public static final byte FORMAT_RGB = 2;
+
+    private static final int MAGIC = 0x504b4142; // "PKAB"
+    private static final int VERSION = 1;
+    private static final int ALIGNMENT = 8;
+
+    private static final String RESOURCE_ROOT = "src/main/resources/";
+
+    // 资源包路径，可通过 -Dpokemon.bundle 调整，设为空字符串时不使用资源包
+    private static final String DEFAULT_PATH = System.getProperty("pokemon.bundle", "target/assets.bundle");
+
+    // 启动时是否检查资源包比源图片旧，需要遍历所有源图片，只在开发时通过 -Dpokemon.bundle.checkStale=true 打开
+    private static final boolean CHECK_STALE = Boolean.getBoolean("pokemon.bundle.checkStale");
+
+    private static volatile AssetBundle defaultBundle;
+    private static volatile boolean defaultResolved;
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, Entry> entries;
+    private final int sourceCount;
+    private final long sourcesModified;
+
+    private AssetBundle(MappedByteBuffer buffer, Map<String, Entry> entries, int sourceCount, long sourcesModified) {
+        this.buffer = buffer;
+        this.entries = entries;
+        this.sourceCount = sourceCount;
+        this.sourcesModified = sourcesModified;
+    }
+
+    /**
+     * 获取默认资源包
+     * 资源包不存在、无法读取或者比源图片旧时返回null，调用方应退回到逐个解码PNG
+     *
+     * @return 资源包或null
+     */
+    public static AssetBundle getDefault() {
+        if (!defaultResolved) {
+            synchronized (AssetBundle.class) {
+                if (!defaultResolved) {
+                    defaultBundle = openDefault();
+                    defaultResolved = true;
+                }
+            }
+        }
+        return defaultBundle;
+    }
+
+    private static AssetBundle openDefault() {
+        if (DEFAULT_PATH.isEmpty()) {
+            return null;
+        }
+        File file = new File(DEFAULT_PATH);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try {
+            AssetBundle bundle = open(file);
+            if (!CHECK_STALE) {
+                return bundle;
+            }
+            // 从jar运行时没有源目录，直接信任资源包
+            List<File> sources = listSources();
+            if (!sources.isEmpty() && (sources.size() != bundle.sourceCount
+                    || newestModified(sources) != bundle.sourcesModified)) {
+                System.err.println("资源包已过期，改为直接加载图片: " + file);
+                return null;
+            }
+            return bundle;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法读取资源包: " + file);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 映射并解析资源包
+     *
+     * @param file 资源包文件
+     * @return 资源包
+     * @throws IOException 文件无法读取或格式不正确时抛出
+     */
+    public static AssetBundle open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // 映射在通道关闭后仍然有效
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("不是资源包文件: " + file);
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException("资源包版本不匹配: " + file);
+        }
+
+        int count = buffer.getInt();
+        int sourceCount = buffer.getInt();
+        long sourcesModified = buffer.getLong();
+
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            Entry entry = new Entry(buffer.get(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                    buffer.getLong(), buffer.getLong());
+            entries.put(new String(name, StandardCharsets.UTF_8), entry);
+        }
+        return new AssetBundle(buffer, entries, sourceCount, sourcesModified);
+    }
+
+    /**
+     * 读取完整图片
+     *
+     * @param path 资源路径
+     * @return 图片，不在资源包中时返回null
+     */
+    public BufferedImage getImage(String path) {
+        Entry entry = getEntry(path);
+        if (entry == null) {
+            return null;
+        }
+        return readRegion(entry, 0, 0, entry.width, entry.height);
+    }
+
+    /**
+     * 只读取图片中的一个区域，用于地图分块
+     *
+     * @param path 资源路径
+     * @param region 区域
+     * @return 区域图片，不在资源包中时返回null
+     */
+    public BufferedImage getRegion(String path, Rectangle region) {
+        Entry entry = getEntry(path);
+        if (entry == null) {
+            return null;
+        }
+        Rectangle clipped = region.intersection(new Rectangle(0, 0, entry.width, entry.height));
+        if (clipped.isEmpty()) {
+            return null;
+        }
+        return readRegion(entry, clipped.x, clipped.y, clipped.width, clipped.height);
+    }
+
+    /**
+     * 按行批量复制映射内存中的像素到新图片的数据数组
+     */
+    private BufferedImage readRegion(Entry entry, int x, int y, int w, int h) {
+        // 每次读取使用独立的视图，多个线程可以同时读取
+        ByteBuffer view = buffer.duplicate();
+
+        if (entry.format == FORMAT_INDEXED) {
+            int[] palette = new int[entry.paletteSize];
+            view.position((int) entry.offset);
+            view.asIntBuffer().get(palette);
+            IndexColorModel colorModel = new IndexColorModel(8, palette.length, palette, 0, true, -1,
+                    DataBuffer.TYPE_BYTE);
+
+            BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            long pixelStart = entry.offset + palette.length * 4L;
+            for (int row = 0; row < h; row++) {
+                view.position((int) (pixelStart + (long) (y + row) * entry.width + x));
+                view.get(pixels, row * w, w);
+            }
+            return image;
+        }
+
+        int type = entry.format == FORMAT_RGB ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage image = new BufferedImage(w, h, type);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        view.position((int) entry.offset);
+        IntBuffer ints = view.asIntBuffer();
+        if (x == 0 && w == entry.width) {
+            ints.position(y * w);
+            ints.get(pixels, 0, w * h);
+        } else {
+            for (int row = 0; row < h; row++) {
+                ints.position((y + row) * entry.width + x);
+                ints.get(pixels, row * w, w);
+            }
+        }
+        return image;
+    }
+
+    public Entry getEntry(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return entries.get(path);
+    }
+
+    public boolean contains(String path) {
+        return getEntry(path) != null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 从资源目录生成资源包
+     *
+     * @param out 输出文件
+     * @return 写入的条目数
+     * @throws IOException 读写失败时抛出
+     */
+    public static int build(File out) throws IOException {
+        List<File> sources = listSources();
+        Path root = Paths.get(RESOURCE_ROOT).toAbsolutePath();
+
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        for (File source : sources) {
+            BufferedImage image = ImageIO.read(source);
+            if (image == null) {
+                System.err.println("无法解码，跳过: " + source);
+                continue;
+            }
+            names.add(root.relativize(source.toPath().toAbsolutePath()).toString().replace(File.separatorChar, '/'));
+            images.add(image);
+        }
+
+        // 先计算索引大小，才能确定数据偏移
+        long headerSize = 4 + 4 + 4 + 4 + 8;
+        for (String name : names) {
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 1 + 4 + 4 + 4 + 8 + 8;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long offset = align(headerSize);
+        for (BufferedImage image : images) {
+            IndexColorModel palette = indexedColorModel(image);
+            byte format = palette != null ? FORMAT_INDEXED
+                    : image.getTransparency() == Transparency.OPAQUE ? FORMAT_RGB : FORMAT_ARGB;
+            int paletteSize = palette != null ? palette.getMapSize() : 0;
+            long length = palette != null
+                    ? paletteSize * 4L + (long) image.getWidth() * image.getHeight()
+                    : (long) image.getWidth() * image.getHeight() * 4;
+            entries.add(new Entry(format, image.getWidth(), image.getHeight(), paletteSize, offset, length));
+            offset = align(offset + length);
+        }
+
+        File parent = out.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录: " + parent);
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+            output.writeInt(sources.size());
+            output.writeLong(newestModified(sources));
+            for (int i = 0; i < entries.size(); i++) {
+                byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+                Entry entry = entries.get(i);
+                output.writeShort(name.length);
+                output.write(name);
+                output.writeByte(entry.format);
+                output.writeInt(entry.width);
+                output.writeInt(entry.height);
+                output.writeInt(entry.paletteSize);
+                output.writeLong(entry.offset);
+                output.writeLong(entry.length);
+            }
+
+            long written = headerSize;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                for (; written < entry.offset; written++) {
+                    output.writeByte(0);
+                }
+                writePixels(output, images.get(i), entry);
+                written += entry.length;
+            }
+        }
+        return entries.size();
+    }
+
+    private static void writePixels(DataOutputStream output, BufferedImage image, Entry entry) throws IOException {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (entry.format == FORMAT_INDEXED) {
+            IndexColorModel palette = (IndexColorModel) image.getColorModel();
+            int[] colors = new int[palette.getMapSize()];
+            palette.getRGBs(colors);
+            for (int color : colors) {
+                output.writeInt(color);
+            }
+            // 位深小于8的图片按每像素1字节展开
+            Raster raster = image.getRaster();
+            int[] row = new int[w];
+            byte[] bytes = new byte[w];
+            for (int y = 0; y < h; y++) {
+                raster.getSamples(0, y, w, 1, 0, row);
+                for (int x = 0; x < w; x++) {
+                    bytes[x] = (byte) row[x];
+                }
+                output.write(bytes);
+            }
+        } else {
+            int[] row = new int[w];
+            for (int y = 0; y < h; y++) {
+                image.getRGB(0, y, w, 1, row, 0, w);
+                for (int argb : row) {
+                    output.writeInt(argb);
+                }
+            }
+        }
+    }
+
+    /**
+     * 调色板图片（颜色数不超过256）返回其颜色模型，其他返回null
+     */
+    private static IndexColorModel indexedColorModel(BufferedImage image) {
+        if (image.getColorModel() instanceof IndexColorModel
+                && ((IndexColorModel) image.getColorModel()).getMapSize() <= 256
+                && image.getRaster().getNumBands() == 1) {
+            return (IndexColorModel) image.getColorModel();
+        }
+        return null;
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static List<File> listSources() {
+        Path root = Paths.get(RESOURCE_ROOT);
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(p -> p.toString().endsWith(".png"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("无法读取目录: " + root);
+            return Collections.emptyList();
+        }
+    }
+
+    private static long newestModified(List<File> sources) {
+        long newest = 0;
+        for (File source : sources) {
+            newest = Math.max(newest, source.lastModified());
+        }
+        return newest;
+    }
+
+    /**
+     * 生成默认资源包
+     */
+    public static void main(String[] args) throws IOException {
+        File out = new File(args.length > 0 ? args[0] : DEFAULT_PATH.isEmpty() ? "target/assets.bundle" : DEFAULT_PATH);
+        long start = System.nanoTime();
+        int count = build(out);
+        System.out.printf("生成资源包 %s: %d个图片, %dKB, 耗时%.1fms%n", out, count, out.length() / 1024,
+                (System.nanoTime() - start) / 1000000.0);
+    }
+
+    /**
+     * 资源包中的一个条目
+     */
+    public static final class Entry {
+
+        public final byte format;
+        public final int width;
+        public final int height;
+        public final int paletteSize;
+        final long offset;
+        final long length;
+
+        Entry(byte format, int width, int height, int paletteSize, long offset, long length) {
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.paletteSize = paletteSize;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
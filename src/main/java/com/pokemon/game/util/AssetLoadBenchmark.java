@@ -0,0 +1,117 @@
+package com.pokemon.game.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 冷启动资源加载基准测试，对比逐个解码PNG与读取资源包两种方式
+ * 每次测量都在新启动的JVM中进行，包含类加载、文件查找和解码的全部开销
+ * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.util.AssetLoadBenchmark"
+ */
+public class AssetLoadBenchmark {
+
+    private static final int RUNS = 5;
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            runChild();
+            return;
+        }
+
+        // 先生成最新的资源包
+        File bundle = new File("target/benchmark/assets.bundle");
+        int count = AssetBundle.build(bundle);
+        System.out.printf("资源包: %d个图片, %dKB%n", count, bundle.length() / 1024);
+
+        long[] png = new long[RUNS];
+        long[] bundled = new long[RUNS];
+        long[] pngProcess = new long[RUNS];
+        long[] bundledProcess = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            // 交替运行，减少磁盘缓存等因素带来的偏差
+            long start = System.nanoTime();
+            png[i] = runInNewJvm("");
+            pngProcess[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            bundled[i] = runInNewJvm(bundle.getPath());
+            bundledProcess[i] = System.nanoTime() - start;
+        }
+
+        double pngMs = median(png) / 1000000.0;
+        double bundleMs = median(bundled) / 1000000.0;
+        System.out.printf("PNG解码:  加载%.1fms, 进程总计%.1fms%n", pngMs, median(pngProcess) / 1000000.0);
+        System.out.printf("资源包:   加载%.1fms, 进程总计%.1fms%n", bundleMs, median(bundledProcess) / 1000000.0);
+        System.out.printf("加载加速 %.2fx (%d次运行的中位数)%n", pngMs / Math.max(bundleMs, 0.001), RUNS);
+    }
+
+    /**
+     * 在子进程中加载全部图片，输出耗时
+     */
+    private static void runChild() {
+        List<String> paths = listImages();
+        long start = System.nanoTime();
+        for (String path : paths) {
+            ImageLoader.loadImage(path);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(RESULT_PREFIX + elapsed);
+    }
+
+    private static long runInNewJvm(String bundlePath) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java,
+                "-Djava.awt.headless=true",
+                "-Dpokemon.bundle=" + bundlePath,
+                "-cp", System.getProperty("java.class.path"),
+                AssetLoadBenchmark.class.getName(), "--child");
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+
+        long result = -1;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = Long.parseLong(line.substring(RESULT_PREFIX.length()));
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result < 0) {
+            throw new IOException("子进程运行失败");
+        }
+        return result;
+    }
+
+    private static List<String> listImages() {
+        Path root = Paths.get("src/main/resources");
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(p -> p.toString().endsWith(".png"))
+                    .sorted()
+                    .map(p -> root.relativize(p).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("无法读取目录: " + root);
+            return new ArrayList<>();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,324 @@
+package com.pokemon.game.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 资源预加载器
+ * 按清单（默认资源目录下的assets.manifest）在ForkJoin线程池中并行解码所有声明的资源，
+ * 让首次使用时的卡顿发生在菜单出现之前，而不是游戏过程中。
+ * 清单每行一项：
+ *   image 路径 [pinned]   加载图片，pinned表示固定在缓存中
+ *   sprite 路径 [pinned]  以调色板格式加载精灵图
+ *   atlas 名称            加载或打包纹理图集
+ * 以#开头的行是注释
+ */
+public class AssetPreloader {
+
+    public static final String DEFAULT_MANIFEST = "assets.manifest";
+
+    // 并行度，可通过 -Dpokemon.preload.threads 调整
+    private static final int DEFAULT_PARALLELISM =
+            Integer.getInteger("pokemon.preload.threads", Runtime.getRuntime().availableProcessors());
+
+    private final List<Asset> assets;
+    private final int parallelism;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile String current = "";
+    private volatile boolean done;
+
+    private ForkJoinPool pool;
+    private ForkJoinTask<?> root;
+    private long startNanos;
+    private volatile long wallNanos;
+    private volatile long startupMillis;
+
+    /**
+     * 创建预加载器
+     *
+     * @param assets 资源列表
+     * @param parallelism 并行线程数
+     */
+    public AssetPreloader(List<Asset> assets, int parallelism) {
+        this.assets = assets;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 读取清单创建预加载器
+     *
+     * @param manifestPath 清单的资源路径
+     * @return 预加载器，清单不存在时资源列表为空
+     */
+    public static AssetPreloader fromManifest(String manifestPath) {
+        List<Asset> assets = new ArrayList<>();
+        try (InputStream stream = ImageLoader.openResourceStream(manifestPath)) {
+            if (stream == null) {
+                System.err.println("资源清单不存在: " + manifestPath);
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    Asset asset = Asset.parse(line);
+                    if (asset == null) {
+                        System.err.println("无法解析资源清单第" + lineNumber + "行: " + line);
+                    } else {
+                        assets.add(asset);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("无法读取资源清单: " + manifestPath);
+            e.printStackTrace();
+        }
+        return new AssetPreloader(assets, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * 在后台开始预加载，立即返回
+     */
+    public synchronized void start() {
+        if (root != null) {
+            return;
+        }
+        startNanos = System.nanoTime();
+        pool = new ForkJoinPool(parallelism);
+        root = pool.submit(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<LoadTask> tasks = new ArrayList<>(assets.size());
+                for (Asset asset : assets) {
+                    tasks.add(new LoadTask(asset));
+                }
+                invokeAll(tasks);
+                finish();
+            }
+        });
+    }
+
+    private void finish() {
+        wallNanos = System.nanoTime() - startNanos;
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        done = true;
+        pool.shutdown();
+        System.out.print(getReport());
+    }
+
+    /**
+     * 等待预加载完成
+     */
+    public void awaitCompletion() {
+        start();
+        root.join();
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 获取完成比例
+     *
+     * @return 0到1之间的值
+     */
+    public double getProgress() {
+        return assets.isEmpty() ? 1.0 : completed.get() / (double) assets.size();
+    }
+
+    public int getCompletedCount() {
+        return completed.get();
+    }
+
+    public int getTotalCount() {
+        return assets.size();
+    }
+
+    /**
+     * 获取最近完成的资源名称，用于显示进度
+     */
+    public String getCurrentAsset() {
+        return current;
+    }
+
+    /**
+     * 获取预加载的墙钟时间（纳秒），未完成时返回0
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * 获取从JVM启动到预加载完成的总时间（毫秒），未完成时返回0
+     */
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    /**
+     * 获取所有资源解码时间之和（纳秒），约等于串行加载所需的时间
+     */
+    public long getTotalDecodeNanos() {
+        long total = 0;
+        for (Asset asset : assets) {
+            total += asset.nanos;
+        }
+        return total;
+    }
+
+    /**
+     * 估计的并行加速比：各资源解码时间之和与墙钟时间之比
+     * 线程数超过CPU核数时，每项的耗时包含了等待调度的时间，估计值会偏高
+     */
+    public double getSpeedup() {
+        return wallNanos == 0 ? 0.0 : getTotalDecodeNanos() / (double) wallNanos;
+    }
+
+    public List<Asset> getAssets() {
+        return Collections.unmodifiableList(assets);
+    }
+
+    /**
+     * 生成加载报告：每个资源的解码时间（从慢到快）、总时间和估计的加速比
+     */
+    public String getReport() {
+        List<Asset> sorted = new ArrayList<>(assets);
+        sorted.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("预加载%d项资源, %d个线程 (%d个CPU核)%n", assets.size(), parallelism,
+                Runtime.getRuntime().availableProcessors()));
+        for (Asset asset : sorted) {
+            sb.append(String.format("  %8.2fms  %s%n", asset.nanos / 1000000.0, asset));
+        }
+        sb.append(String.format("解码时间合计%.1fms, 实际耗时%.1fms, 估计加速%.2fx（线程数多于CPU核数时偏高）%n",
+                getTotalDecodeNanos() / 1000000.0, wallNanos / 1000000.0, getSpeedup()));
+        sb.append(String.format("启动总耗时（JVM启动至资源就绪）%dms%n", startupMillis));
+        return sb.toString();
+    }
+
+    /**
+     * 单个资源的加载任务
+     */
+    private class LoadTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Asset asset;
+
+        LoadTask(Asset asset) {
+            this.asset = asset;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            try {
+                asset.load();
+            } catch (RuntimeException e) {
+                // 单个资源失败不影响其他资源，使用时会再按原来的方式处理
+                System.err.println("预加载失败: " + asset);
+                e.printStackTrace();
+            }
+            asset.nanos = System.nanoTime() - start;
+            current = asset.path;
+            completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 清单中的一项资源
+     */
+    public static class Asset {
+
+        public enum Type {
+            IMAGE, SPRITE, ATLAS
+        }
+
+        private final Type type;
+        private final String path;
+        private final boolean pinned;
+        private volatile long nanos;
+
+        public Asset(Type type, String path, boolean pinned) {
+            this.type = type;
+            this.path = path;
+            this.pinned = pinned;
+        }
+
+        static Asset parse(String line) {
+            String[] parts = line.split("\\s+");
+            if (parts.length < 2) {
+                return null;
+            }
+            boolean pinned = parts.length > 2 && "pinned".equals(parts[2]);
+            switch (parts[0]) {
+                case "image":
+                    return new Asset(Type.IMAGE, parts[1], pinned);
+                case "sprite":
+                    return new Asset(Type.SPRITE, parts[1], pinned);
+                case "atlas":
+                    return new Asset(Type.ATLAS, parts[1], false);
+                default:
+                    return null;
+            }
+        }
+
+        void load() {
+            if (type == Type.ATLAS) {
+                TextureAtlas.get(path);
+            } else if (type == Type.SPRITE) {
+                if (pinned) {
+                    ImageLoader.loadPinnedIndexedSprite(path);
+                } else {
+                    ImageLoader.loadIndexedSprite(path);
+                }
+            } else if (pinned) {
+                ImageLoader.loadPinnedImage(path);
+            } else {
+                ImageLoader.loadImage(path);
+            }
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isPinned() {
+            return pinned;
+        }
+
+        /**
+         * 获取解码耗时（纳秒）
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return type.name().toLowerCase() + " " + path + (pinned ? " (pinned)" : "");
+        }
+    }
+}
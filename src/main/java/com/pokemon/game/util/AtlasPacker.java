@@ -0,0 +1,134 @@
+package com.pokemon.game.util;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 图集打包器，使用货架（shelf）算法把小图排列到图集上
+ * 精灵按高度从高到低排序后逐行放置，一行放不下就开新的一行，一张图集放不下就开新的一张
+ */
+public class AtlasPacker {
+
+    // 默认图集最大尺寸
+    public static final int DEFAULT_MAX_SHEET_SIZE = 1024;
+
+    // 精灵之间的间隔，避免缩放绘制时采样到相邻精灵
+    public static final int DEFAULT_PADDING = 1;
+
+    private final int maxSheetSize;
+    private final int padding;
+
+    // 按名称排序，保证同样的输入打包出同样的结果
+    private final Map<String, BufferedImage> sprites = new TreeMap<>();
+
+    public AtlasPacker() {
+        this(DEFAULT_MAX_SHEET_SIZE, DEFAULT_PADDING);
+    }
+
+    public AtlasPacker(int maxSheetSize, int padding) {
+        this.maxSheetSize = maxSheetSize;
+        this.padding = padding;
+    }
+
+    /**
+     * 添加精灵图
+     *
+     * @param name 区域名称（资源路径）
+     * @param image 图片
+     */
+    public void add(String name, BufferedImage image) {
+        if (image.getWidth() + padding > maxSheetSize || image.getHeight() + padding > maxSheetSize) {
+            throw new IllegalArgumentException("精灵图超过图集尺寸: " + name);
+        }
+        sprites.put(name, image);
+    }
+
+    /**
+     * 打包所有精灵图
+     *
+     * @param atlasName 图集名称
+     * @return 图集
+     */
+    public TextureAtlas pack(String atlasName) {
+        List<Map.Entry<String, BufferedImage>> order = new ArrayList<>(sprites.entrySet());
+        // 高的先放，同一行的高度尽量接近，浪费的空间更少
+        order.sort((a, b) -> b.getValue().getHeight() - a.getValue().getHeight());
+
+        int sheetWidth = chooseSheetWidth();
+        Map<String, TextureAtlas.Region> regions = new LinkedHashMap<>();
+        List<Integer> sheetHeights = new ArrayList<>();
+
+        int sheet = 0;
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+
+        for (Map.Entry<String, BufferedImage> entry : order) {
+            int w = entry.getValue().getWidth();
+            int h = entry.getValue().getHeight();
+
+            // 当前行放不下，换到下一行
+            if (shelfX + w + padding > sheetWidth) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            // 当前图集放不下，换到下一张
+            if (shelfY + h + padding > maxSheetSize) {
+                sheetHeights.add(shelfY);
+                sheet++;
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+
+            regions.put(entry.getKey(), new TextureAtlas.Region(sheet, shelfX + padding, shelfY + padding, w, h));
+            shelfX += w + padding;
+            shelfHeight = Math.max(shelfHeight, h + padding);
+        }
+        sheetHeights.add(shelfY + shelfHeight);
+
+        // 绘制图集，高度裁剪到实际使用的部分；使用ARGB格式以便写成PNG，加载时再转换为兼容格式
+        List<BufferedImage> sheets = new ArrayList<>();
+        List<Graphics2D> graphics = new ArrayList<>();
+        for (int height : sheetHeights) {
+            BufferedImage image = new BufferedImage(sheetWidth,
+                    Math.max(1, Math.min(maxSheetSize, height + padding)), BufferedImage.TYPE_INT_ARGB);
+            sheets.add(image);
+            graphics.add(image.createGraphics());
+        }
+        for (Map.Entry<String, TextureAtlas.Region> entry : regions.entrySet()) {
+            TextureAtlas.Region r = entry.getValue();
+            graphics.get(r.sheet).drawImage(sprites.get(entry.getKey()), r.x, r.y, null);
+        }
+        for (Graphics2D g : graphics) {
+            g.dispose();
+        }
+
+        return new TextureAtlas(atlasName, Collections.unmodifiableList(sheets), regions);
+    }
+
+    /**
+     * 选择图集宽度：不小于最宽的精灵，面积约为所有精灵面积之和的正方形，取2的幂
+     */
+    private int chooseSheetWidth() {
+        long area = 0;
+        int widest = 0;
+        for (BufferedImage image : sprites.values()) {
+            area += (long) (image.getWidth() + padding) * (image.getHeight() + padding);
+            widest = Math.max(widest, image.getWidth() + padding * 2);
+        }
+        int width = Integer.highestOneBit(Math.max(1, (int) Math.ceil(Math.sqrt(area))) - 1) << 1;
+        return Math.min(maxSheetSize, Math.max(1, Math.max(width, widest)));
+    }
+
+    public int getSpriteCount() {
+        return sprites.size();
+    }
+}
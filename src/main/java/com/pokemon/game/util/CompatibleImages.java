@@ -0,0 +1,119 @@
+package com.pokemon.game.util;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * 兼容图像工具类
+ * 把ImageIO解码出的各种格式统一转换为与屏幕GraphicsConfiguration一致的格式，
+ * 这样Java2D可以直接使用加速的绘制路径，而不必在每次drawImage时逐像素转换
+ */
+public class CompatibleImages {
+
+    // 屏幕的图形配置，无显示环境时为null
+    private static volatile GraphicsConfiguration configuration;
+    private static volatile boolean resolved;
+
+    /**
+     * 获取默认屏幕的图形配置
+     *
+     * @return 图形配置，无显示环境时返回null
+     */
+    public static GraphicsConfiguration getConfiguration() {
+        if (!resolved) {
+            synchronized (CompatibleImages.class) {
+                if (!resolved) {
+                    configuration = lookupConfiguration();
+                    resolved = true;
+                }
+            }
+        }
+        return configuration;
+    }
+
+    private static GraphicsConfiguration lookupConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        try {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice()
+                    .getDefaultConfiguration();
+        } catch (HeadlessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 创建兼容图像
+     * 无显示环境时退回到Java2D内部最快的INT格式
+     *
+     * @param width 宽度
+     * @param height 高度
+     * @param transparency 透明度类型 (Transparency.OPAQUE / BITMASK / TRANSLUCENT)
+     * @return 兼容图像
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        GraphicsConfiguration gc = getConfiguration();
+        if (gc != null) {
+            return gc.createCompatibleImage(width, height, transparency);
+        }
+        int type = transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB
+                : BufferedImage.TYPE_INT_ARGB_PRE;
+        return new BufferedImage(width, height, type);
+    }
+
+    /**
+     * 把图像转换为兼容格式，已经兼容的图像直接返回
+     *
+     * @param image 原图像
+     * @return 兼容图像
+     */
+    public static BufferedImage toCompatibleImage(BufferedImage image) {
+        if (image == null || isCompatible(image)) {
+            return image;
+        }
+
+        BufferedImage compatible = createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    /**
+     * 判断图像是否已经是兼容格式
+     *
+     * @param image 图像
+     * @return 是否兼容
+     */
+    public static boolean isCompatible(BufferedImage image) {
+        GraphicsConfiguration gc = getConfiguration();
+        if (gc != null) {
+            return image.getColorModel().equals(gc.getColorModel(image.getTransparency()));
+        }
+        int type = image.getType();
+        return type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB_PRE;
+    }
+
+    /**
+     * 创建可加速的VolatileImage，无显示环境时返回null
+     *
+     * @param width 宽度
+     * @param height 高度
+     * @return VolatileImage或null
+     */
+    public static VolatileImage createVolatileImage(int width, int height) {
+        GraphicsConfiguration gc = getConfiguration();
+        if (gc == null) {
+            return null;
+        }
+        return gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+    }
+}
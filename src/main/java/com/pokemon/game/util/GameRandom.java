@@ -0,0 +1,73 @@
+package com.pokemon.game.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * 游戏随机数服务
+ * 按用途分成几条独立的随机数流（遭遇、伤害、捕获），都由同一个种子推导出来，
+ * 某一处多用或少用随机数不会影响其他流。种子可以通过 -Dpokemon.seed 指定，相同种子和相同输入下结果完全一致。
+ * 随机数流使用SplittableRandom，不是线程安全的：每个实例只应在一个线程中使用，其他线程用split()得到自己的实例
+ */
+public class GameRandom {
+
+    /**
+     * 随机数流
+     */
+    public enum Stream {
+        ENCOUNTER, // 野生宝可梦的出现、种类、等级和闪光
+        DAMAGE,    // 命中和伤害浮动
+        CAPTURE    // 精灵球捕获判定
+    }
+
+    private final long seed;
+    private final SplittableRandom splitter;
+    private final SplittableRandom[] streams;
+
+    /**
+     * 创建随机数服务
+     *
+     * @param seed 种子
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.splitter = new SplittableRandom(seed);
+        Stream[] values = Stream.values();
+        this.streams = new SplittableRandom[values.length];
+        // 按枚举顺序从splitter分出各条流
+        for (Stream stream : values) {
+            streams[stream.ordinal()] = splitter.split();
+        }
+    }
+
+    /**
+     * 使用 -Dpokemon.seed 指定的种子创建，没有指定时随机选择一个种子并输出，以便重现
+     */
+    public static GameRandom fromSystemProperty() {
+        Long configured = Long.getLong("pokemon.seed");
+        if (configured != null) {
+            return new GameRandom(configured);
+        }
+        long seed = new SplittableRandom().nextLong();
+        System.out.println("随机种子: " + seed + "（可用 -Dpokemon.seed=" + seed + " 重现）");
+        return new GameRandom(seed);
+    }
+
+    /**
+     * 获取指定用途的随机数流
+     */
+    public SplittableRandom stream(Stream stream) {
+        return streams[stream.ordinal()];
+    }
+
+    /**
+     * 分出一个独立的随机数服务，交给其他线程使用
+     * 按相同顺序调用时分出的实例相同
+     */
+    public GameRandom split() {
+        return new GameRandom(splitter.nextLong());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,426 @@
+package com.pokemon.game.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按字节数计量的有界图片缓存
+ * 每张图片按解码后的像素数据大小计入预算，超出预算时按所选策略淘汰；
+ * 固定的图片（玩家精灵表、界面元素等）单独保存，不参与淘汰也不占用预算
+ */
+public class ImageCache {
+
+    /**
+     * 淘汰策略
+     */
+    public enum Policy {
+        // 最近最少使用
+        LRU,
+        // 小窗口LRU加频率准入的主区，偶尔出现一次的大图不会挤掉常用的图片
+        TINY_LFU
+    }
+
+    // 默认字节预算，可通过 -Dpokemon.image.cacheBytes 调整
+    public static final long DEFAULT_MAX_BYTES =
+            Long.getLong("pokemon.image.cacheBytes", 32L * 1024 * 1024);
+
+    // 默认策略，可通过 -Dpokemon.image.cachePolicy=LRU|TINY_LFU 调整
+    public static final Policy DEFAULT_POLICY = policyFromSystemProperty();
+
+    // TinyLFU中窗口区占总预算的比例
+    private static final double WINDOW_RATIO = 0.01;
+
+    private final Policy policy;
+    private long maxBytes;
+
+    // LRU策略时所有条目都在主区；TinyLFU策略时新条目先进入窗口区
+    private final LinkedHashMap<String, BufferedImage> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, BufferedImage> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, BufferedImage> pinned = new HashMap<>();
+    private final FrequencySketch sketch;
+
+    private long windowBytes;
+    private long mainBytes;
+    private long pinnedBytes;
+
+    // 统计
+    private long evictions;
+    private long rejections;
+
+    /**
+     * 使用默认预算和策略创建缓存
+     */
+    public ImageCache() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_POLICY);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param maxBytes 可淘汰部分的字节预算
+     * @param policy 淘汰策略
+     */
+    public ImageCache(long maxBytes, Policy policy) {
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.sketch = policy == Policy.TINY_LFU ? new FrequencySketch(1024) : null;
+    }
+
+    /**
+     * 读取 -Dpokemon.image.cachePolicy，没有指定或无法识别时使用TINY_LFU
+     */
+    private static Policy policyFromSystemProperty() {
+        String value = System.getProperty("pokemon.image.cachePolicy");
+        if (value == null) {
+            return Policy.TINY_LFU;
+        }
+        for (Policy policy : Policy.values()) {
+            if (policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        System.err.println("无法识别的图片缓存策略: " + value + "，使用TINY_LFU");
+        return Policy.TINY_LFU;
+    }
+
+    /**
+     * 计算图片像素数据占用的字节数
+     *
+     * @param image 图片
+     * @return 字节数
+     */
+    public static long byteSize(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    /**
+     * 查找图片
+     *
+     * @param key 键
+     * @return 图片，不在缓存中时返回null
+     */
+    public synchronized BufferedImage get(String key) {
+        BufferedImage image = pinned.get(key);
+        if (image != null) {
+            return image;
+        }
+
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+
+        image = window.get(key);
+        if (image == null) {
+            image = main.get(key);
+        }
+        return image;
+    }
+
+    /**
+     * 查找图片但不计入访问频率，用于同一次访问中的重复查找
+     *
+     * @param key 键
+     * @return 图片，不存在时返回null
+     */
+    synchronized BufferedImage peek(String key) {
+        BufferedImage image = pinned.get(key);
+        if (image == null) {
+            image = window.get(key);
+        }
+        if (image == null) {
+            image = main.get(key);
+        }
+        return image;
+    }
+
+    /**
+     * 放入图片，必要时淘汰其他条目
+     * 单张超过预算的图片不会被缓存
+     *
+     * @param key 键
+     * @param image 图片
+     */
+    public synchronized void put(String key, BufferedImage image) {
+        if (pinned.containsKey(key)) {
+            pin(key, image);
+            return;
+        }
+        remove(key);
+
+        long size = byteSize(image);
+        if (size > maxBytes) {
+            rejections++;
+            return;
+        }
+
+        if (policy == Policy.LRU) {
+            main.put(key, image);
+            mainBytes += size;
+        } else {
+            window.put(key, image);
+            windowBytes += size;
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * 固定图片，固定后不会被淘汰
+     *
+     * @param key 键
+     * @param image 图片
+     */
+    public synchronized void pin(String key, BufferedImage image) {
+        remove(key);
+        BufferedImage previous = pinned.put(key, image);
+        if (previous != null) {
+            pinnedBytes -= byteSize(previous);
+        }
+        pinnedBytes += byteSize(image);
+    }
+
+    /**
+     * 取消固定，图片重新作为普通条目参与淘汰
+     *
+     * @param key 键
+     */
+    public synchronized void unpin(String key) {
+        BufferedImage image = pinned.remove(key);
+        if (image != null) {
+            pinnedBytes -= byteSize(image);
+            put(key, image);
+        }
+    }
+
+    public synchronized boolean isPinned(String key) {
+        return pinned.containsKey(key);
+    }
+
+    /**
+     * 移除普通条目（固定的图片不受影响）
+     *
+     * @param key 键
+     */
+    public synchronized void remove(String key) {
+        BufferedImage image = window.remove(key);
+        if (image != null) {
+            windowBytes -= byteSize(image);
+        }
+        image = main.remove(key);
+        if (image != null) {
+            mainBytes -= byteSize(image);
+        }
+    }
+
+    /**
+     * 清空所有条目，包括固定的图片
+     */
+    public synchronized void clear() {
+        window.clear();
+        main.clear();
+        pinned.clear();
+        windowBytes = 0;
+        mainBytes = 0;
+        pinnedBytes = 0;
+        if (sketch != null) {
+            sketch.clear();
+        }
+    }
+
+    /**
+     * 调整字节预算，立即淘汰超出的部分
+     *
+     * @param maxBytes 字节预算
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        if (policy == Policy.LRU) {
+            Iterator<Map.Entry<String, BufferedImage>> it = main.entrySet().iterator();
+            while (mainBytes > maxBytes && it.hasNext()) {
+                mainBytes -= byteSize(it.next().getValue());
+                it.remove();
+                evictions++;
+            }
+            return;
+        }
+
+        // 窗口区超出后，把最久未用的条目作为候选移入主区
+        long windowMax = Math.max(1, (long) (maxBytes * WINDOW_RATIO));
+        Iterator<Map.Entry<String, BufferedImage>> windowIt = window.entrySet().iterator();
+        while (windowBytes > windowMax && windowIt.hasNext()) {
+            Map.Entry<String, BufferedImage> candidate = windowIt.next();
+            windowIt.remove();
+            long size = byteSize(candidate.getValue());
+            windowBytes -= size;
+            admit(candidate.getKey(), candidate.getValue(), size);
+        }
+
+        // 预算被调小时窗口区本身也可能超出
+        Iterator<Map.Entry<String, BufferedImage>> mainIt = main.entrySet().iterator();
+        while (windowBytes + mainBytes > maxBytes && mainIt.hasNext()) {
+            mainBytes -= byteSize(mainIt.next().getValue());
+            mainIt.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * TinyLFU准入：候选的访问频率高于主区中需要腾出空间的每一个最久未用条目时才替换它们
+     * 先只查看受害者并累计可腾出的字节数，候选胜出后才真正移除，候选被拒绝时主区保持不变
+     */
+    private void admit(String key, BufferedImage image, long size) {
+        long mainMax = maxBytes - windowBytes;
+        if (size > mainMax) {
+            evictions++;
+            return;
+        }
+        int candidateFrequency = sketch.frequency(key);
+
+        // 第一遍：找出需要淘汰的受害者数量，期间有任何一个比候选更常用就拒绝候选
+        long freed = 0;
+        int victims = 0;
+        for (Map.Entry<String, BufferedImage> victim : main.entrySet()) {
+            if (mainBytes - freed + size <= mainMax) {
+                break;
+            }
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                // 候选被拒绝
+                evictions++;
+                return;
+            }
+            freed += byteSize(victim.getValue());
+            victims++;
+        }
+
+        // 第二遍：候选胜出，移除这些受害者
+        Iterator<Map.Entry<String, BufferedImage>> it = main.entrySet().iterator();
+        for (int i = 0; i < victims; i++) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+        mainBytes -= freed;
+        main.put(key, image);
+        mainBytes += size;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 获取可淘汰部分当前占用的字节数
+     */
+    public synchronized long getResidentBytes() {
+        return windowBytes + mainBytes;
+    }
+
+    public synchronized long getPinnedBytes() {
+        return pinnedBytes;
+    }
+
+    /**
+     * 获取条目总数（包括固定的图片）
+     */
+    public synchronized int size() {
+        return window.size() + main.size() + pinned.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * 获取因单张超出预算而没有缓存的次数
+     */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    /**
+     * 计数最小草图（Count-Min Sketch），用很小的固定内存估计每个键的访问频率
+     * 每个计数器4位，最大15；总访问次数达到阈值时所有计数减半，让旧的热点逐渐冷却
+     */
+    static class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = {0x97cb3127, 0x0c0d8e13, 0x6a09e667, 0x3c6ef372};
+
+        private final byte[][] table;
+        private final int mask;
+        private final int resetThreshold;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int capacity = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+            table = new byte[DEPTH][capacity];
+            mask = capacity - 1;
+            resetThreshold = capacity * 10;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = indexOf(hash, i);
+                if (table[i][index] < 15) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= resetThreshold) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = 15;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, table[i][indexOf(hash, i)]);
+            }
+            return min;
+        }
+
+        void clear() {
+            for (byte[] row : table) {
+                Arrays.fill(row, (byte) 0);
+            }
+            additions = 0;
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 17;
+            h *= 0xed5ad4bb;
+            h ^= h >>> 11;
+            return h;
+        }
+    }
+}
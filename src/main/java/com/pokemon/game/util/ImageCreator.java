@@ -5,12 +5,16 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.SplittableRandom;
 
 /**
  * 图像创建工具类，用于生成游戏所需的基本图片
  */
 public class ImageCreator {
 
+    // 战斗背景中小花位置的随机种子
+    private static final long FLOWER_SEED = 42;
+
     public static void main(String[] args) {
         createMissingImages();
     }
@@ -278,10 +282,12 @@ public class ImageCreator {
         }
         
         // 绘制小花
+        // 固定种子，每次生成的图片相同
         g.setColor(Color.YELLOW);
+        SplittableRandom random = new SplittableRandom(FLOWER_SEED);
         for (int i = 0; i < 20; i++) {
-            int x = (int)(Math.random() * 800);
-            int y = (int)(Math.random() * 300) + 50;
+            int x = random.nextInt(800);
+            int y = random.nextInt(300) + 50;
             drawFlower(g, x, y);
         }
         
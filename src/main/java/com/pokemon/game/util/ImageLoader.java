@@ -4,10 +4,13 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
 import javax.imageio.ImageIO;
 
 /**
@@ -15,21 +18,157 @@ import javax.imageio.ImageIO;
  */
 public class ImageLoader {
     
-    // 图片缓存，避免重复加载
-    private static Map<String, BufferedImage> imageCache = new HashMap<>();
+    // 图片缓存，按解码后的字节数计量，超出预算时淘汰；加载失败得到的占位图也会被缓存
+    private static final ImageCache imageCache = new ImageCache();
+    
+    // 调色板图片在缓存中的键前缀
+    private static final String INDEXED_PREFIX = "indexed:";
+    
+    // 正在加载的任务：同一路径的并发请求共享同一次解码
+    private static final ConcurrentHashMap<String, FutureTask<BufferedImage>> loading = new ConcurrentHashMap<>();
+    
+    // 缓存统计
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder loadNanos = new LongAdder();
     
     /**
-     * 加载图片资源
+     * 加载图片资源，可以在任意线程中调用
      * 
      * @param path 图片路径
-     * @return 缓冲图像对象
+     * @return 缓冲图像对象，资源不存在或无法解码时返回占位图
      */
     public static BufferedImage loadImage(String path) {
+        return load(path, path, false);
+    }
+    
+    /**
+     * 以调色板格式加载精灵图，每像素1字节，可以换色
+     * 颜色超过256种的图片无法转换，返回null，调用方应改用loadImage
+     * 
+     * @param path 图片路径
+     * @return 调色板精灵图，无法转换时返回null
+     */
+    public static IndexedSprite loadIndexedSprite(String path) {
+        BufferedImage image = load(INDEXED_PREFIX + path, path, true);
+        return IndexedSprite.wrap(image);
+    }
+    
+    /**
+     * 以调色板格式加载精灵图并固定在缓存中
+     * 
+     * @param path 图片路径
+     * @return 调色板精灵图，无法转换时返回null
+     */
+    public static IndexedSprite loadPinnedIndexedSprite(String path) {
+        BufferedImage image = load(INDEXED_PREFIX + path, path, true);
+        imageCache.pin(INDEXED_PREFIX + path, image);
+        return IndexedSprite.wrap(image);
+    }
+    
+    /**
+     * 从缓存中取图片，不存在时解码，同一个键的并发请求只解码一次
+     */
+    private static BufferedImage load(String key, String path, boolean indexed) {
         // 检查缓存
-        if (imageCache.containsKey(path)) {
-            return imageCache.get(path);
+        BufferedImage image = imageCache.get(key);
+        if (image != null) {
+            hits.increment();
+            return image;
+        }
+        
+        FutureTask<BufferedImage> task = loading.get(key);
+        if (task == null) {
+            FutureTask<BufferedImage> created = new FutureTask<>(() -> decodeIfMissing(key, path, indexed));
+            task = loading.putIfAbsent(key, created);
+            
+            // 只有成功登记任务的线程负责解码，其他线程等待同一个结果
+            if (task == null) {
+                task = created;
+                created.run();
+                try {
+                    imageCache.put(key, created.get());
+                } catch (InterruptedException | ExecutionException e) {
+                    // 下面统一处理
+                } finally {
+                    loading.remove(key, created);
+                }
+            } else {
+                hits.increment();
+            }
+        } else {
+            hits.increment();
         }
         
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return createPlaceholderImage(path);
+        } catch (ExecutionException e) {
+            System.err.println("无法加载图片: " + path);
+            e.getCause().printStackTrace();
+            return createPlaceholderImage(path);
+        }
+    }
+    
+    /**
+     * 登记任务的线程解码图片。上一个解码者放入缓存并注销任务的间隙里，
+     * 本线程可能没有命中缓存却登记成功，所以解码前再查一次缓存
+     */
+    private static BufferedImage decodeIfMissing(String key, String path, boolean indexed) {
+        // load()已经计过这次访问，这里不再计入频率
+        BufferedImage cached = imageCache.peek(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        BufferedImage image = decodeImage(path, indexed);
+        loadNanos.add(System.nanoTime() - start);
+        return image;
+    }
+    
+    /**
+     * 加载图片并固定在缓存中，用于需要常驻的精灵表和界面元素
+     * 
+     * @param path 图片路径
+     * @return 缓冲图像对象
+     */
+    public static BufferedImage loadPinnedImage(String path) {
+        BufferedImage image = loadImage(path);
+        imageCache.pin(path, image);
+        return image;
+    }
+    
+    /**
+     * 取消固定，图片重新参与淘汰
+     * 
+     * @param path 图片路径
+     */
+    public static void unpinImage(String path) {
+        imageCache.unpin(path);
+    }
+    
+    /**
+     * 调整缓存的字节预算（不包括固定的图片）
+     * 
+     * @param maxBytes 字节预算
+     */
+    public static void setCacheBudget(long maxBytes) {
+        imageCache.setMaxBytes(maxBytes);
+    }
+    
+    /**
+     * 解码图片，失败时返回占位图
+     * 
+     * @param path 图片路径
+     * @param indexed 是否转换为调色板格式，为false时转换为屏幕兼容格式
+     * @return 缓冲图像对象
+     */
+    private static BufferedImage decodeImage(String path, boolean indexed) {
         try {
             // 确保路径格式正确
             String resourcePath = path;
@@ -37,36 +176,190 @@ public class ImageLoader {
                 resourcePath = resourcePath.substring(1);
             }
             
-            // 首先尝试从文件系统加载
+            // 优先从预先解码的资源包中读取
+            AssetBundle bundle = AssetBundle.getDefault();
+            BufferedImage image = bundle != null ? bundle.getImage(resourcePath) : null;
+            if (image != null) {
+                return convert(image, indexed);
+            }
+            
+            // 然后尝试从文件系统加载
             File file = new File("src/main/resources/" + resourcePath);
             if (file.exists()) {
                 System.out.println("从文件系统加载图片: " + file.getAbsolutePath());
-                BufferedImage image = ImageIO.read(file);
-                imageCache.put(path, image);
-                return image;
+                image = ImageIO.read(file);
+            } else {
+                // 如果文件系统加载失败，尝试从资源加载
+                String classPath = "/" + resourcePath;
+                try (InputStream stream = ImageLoader.class.getResourceAsStream(classPath)) {
+                    if (stream != null) {
+                        System.out.println("从资源加载图片: " + classPath);
+                        image = ImageIO.read(stream);
+                    }
+                }
             }
             
-            // 如果文件系统加载失败，尝试从资源加载
-            String classPath = "/" + resourcePath;
-            InputStream stream = ImageLoader.class.getResourceAsStream(classPath);
-            
-            if (stream != null) {
-                System.out.println("从资源加载图片: " + classPath);
-                BufferedImage image = ImageIO.read(stream);
-                imageCache.put(path, image);
-                return image;
-            } else {
+            if (image == null) {
                 System.err.println("图片资源不存在: " + path);
+                failures.increment();
                 // 创建一个简单的占位图
                 return createPlaceholderImage(path);
             }
+            
+            return convert(image, indexed);
         } catch (IOException e) {
             System.err.println("无法加载图片: " + path);
             e.printStackTrace();
+            failures.increment();
             return createPlaceholderImage(path);
         }
     }
     
+    /**
+     * 转换解码结果的格式
+     * 普通图片转换为屏幕兼容格式，绘制时走加速路径；调色板图片颜色过多时保持原样，由调用方处理
+     */
+    private static BufferedImage convert(BufferedImage image, boolean indexed) {
+        if (indexed) {
+            IndexedSprite sprite = IndexedSprite.fromImage(image);
+            return sprite != null ? sprite.getImage() : image;
+        }
+        return CompatibleImages.toCompatibleImage(image);
+    }
+    
+    /**
+     * 获取缓存统计信息的快照
+     * 
+     * @return 统计信息
+     */
+    public static CacheStats getStats() {
+        synchronized (imageCache) {
+            return new CacheStats(hits.sum(), misses.sum(), failures.sum(), loadNanos.sum(), imageCache.size(),
+                    imageCache.getResidentBytes(), imageCache.getPinnedBytes(), imageCache.getMaxBytes(),
+                    imageCache.getEvictions());
+        }
+    }
+    
+    /**
+     * 清空图片缓存和统计信息
+     */
+    public static void clearCache() {
+        imageCache.clear();
+        loading.clear();
+        hits.reset();
+        misses.reset();
+        failures.reset();
+        loadNanos.reset();
+    }
+    
+    /**
+     * 图片缓存统计信息
+     */
+    public static class CacheStats {
+        
+        private final long hits;
+        private final long misses;
+        private final long failures;
+        private final long loadNanos;
+        private final int size;
+        private final long residentBytes;
+        private final long pinnedBytes;
+        private final long maxBytes;
+        private final long evictions;
+        
+        CacheStats(long hits, long misses, long failures, long loadNanos, int size,
+                   long residentBytes, long pinnedBytes, long maxBytes, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.failures = failures;
+            this.loadNanos = loadNanos;
+            this.size = size;
+            this.residentBytes = residentBytes;
+            this.pinnedBytes = pinnedBytes;
+            this.maxBytes = maxBytes;
+            this.evictions = evictions;
+        }
+        
+        // 命中次数（包括等待其他线程正在进行的加载）
+        public long getHits() {
+            return hits;
+        }
+        
+        // 未命中次数，即实际解码次数
+        public long getMisses() {
+            return misses;
+        }
+        
+        // 加载失败、以占位图代替的次数
+        public long getFailures() {
+            return failures;
+        }
+        
+        // 累计解码耗时（纳秒）
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+        
+        // 缓存条目数（包括固定的图片）
+        public int getSize() {
+            return size;
+        }
+        
+        // 可淘汰部分占用的字节数
+        public long getResidentBytes() {
+            return residentBytes;
+        }
+        
+        // 固定的图片占用的字节数
+        public long getPinnedBytes() {
+            return pinnedBytes;
+        }
+        
+        // 字节预算
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+        
+        // 淘汰次数
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("图片缓存: %d项, %dKB/%dKB (固定%dKB), 命中%d次, 未命中%d次 (命中率%.1f%%), "
+                    + "失败%d次, 淘汰%d次, 解码共%.1fms",
+                    size, residentBytes / 1024, maxBytes / 1024, pinnedBytes / 1024, hits, misses,
+                    getHitRate() * 100, failures, evictions, loadNanos / 1000000.0);
+        }
+    }
+    
+    /**
+     * 打开资源输入流，查找顺序与loadImage一致：先文件系统，后类路径
+     * 
+     * @param path 资源路径
+     * @return 输入流，资源不存在时返回null
+     * @throws IOException 打开文件失败时抛出
+     */
+    public static InputStream openResourceStream(String path) throws IOException {
+        String resourcePath = path;
+        if (resourcePath.startsWith("/")) {
+            resourcePath = resourcePath.substring(1);
+        }
+        
+        File file = new File("src/main/resources/" + resourcePath);
+        if (file.exists()) {
+            return new FileInputStream(file);
+        }
+        
+        return ImageLoader.class.getResourceAsStream("/" + resourcePath);
+    }
+    
     /**
      * 创建占位图像，当图片加载失败时使用
      * 
@@ -0,0 +1,214 @@
+package com.pokemon.game.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 调色板精灵图
+ * GBA风格的图片颜色很少，每像素只存1字节的调色板索引，内存是ARGB格式的四分之一。
+ * 换色（如闪光宝可梦）只替换调色板，与原图共享同一份像素数据
+ */
+public class IndexedSprite {
+
+    // 调色板最多256色
+    public static final int MAX_COLORS = 256;
+
+    // 闪光配色的色相偏移
+    private static final float SHINY_HUE_SHIFT = 0.45f;
+
+    private final WritableRaster raster;
+    private final int[] palette;
+    private final BufferedImage image;
+
+    // 闪光配色，首次使用时创建
+    private IndexedSprite shiny;
+
+    private IndexedSprite(WritableRaster raster, int[] palette) {
+        this.raster = raster;
+        this.palette = palette;
+        this.image = new BufferedImage(createColorModel(palette), raster, false, null);
+    }
+
+    private static IndexColorModel createColorModel(int[] palette) {
+        // IndexColorModel要求至少2色
+        int[] colors = palette.length >= 2 ? palette : new int[] {palette.length > 0 ? palette[0] : 0, 0};
+        return new IndexColorModel(8, colors.length, colors, 0, true, -1, DataBuffer.TYPE_BYTE);
+    }
+
+    /**
+     * 用指定调色板创建精灵图，并用Graphics2D绘制内容
+     * 绘制时只应使用调色板中的颜色，并且不要开启抗锯齿，否则颜色会被映射到最接近的调色板颜色
+     *
+     * @param width 宽度
+     * @param height 高度
+     * @param palette 调色板（ARGB），索引0为初始填充色
+     * @param painter 绘制回调
+     * @return 精灵图
+     */
+    public static IndexedSprite create(int width, int height, int[] palette, Consumer<Graphics2D> painter) {
+        int[] colors = palette.clone();
+        IndexedSprite sprite = new IndexedSprite(
+                createColorModel(colors).createCompatibleWritableRaster(width, height), colors);
+        Graphics2D g = sprite.image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            painter.accept(g);
+        } finally {
+            g.dispose();
+        }
+        return sprite;
+    }
+
+    /**
+     * 把普通图片转换为调色板精灵图
+     * 完全透明的像素统一为一种颜色
+     *
+     * @param source 源图片
+     * @return 精灵图，颜色超过256种时返回null
+     */
+    public static IndexedSprite fromImage(BufferedImage source) {
+        // 已经是8位调色板图片时直接使用
+        if (source.getColorModel() instanceof IndexColorModel
+                && source.getRaster().getDataBuffer().getDataType() == DataBuffer.TYPE_BYTE
+                && source.getSampleModel().getSampleSize(0) == 8
+                && source.getRaster().getNumBands() == 1) {
+            IndexColorModel colorModel = (IndexColorModel) source.getColorModel();
+            int[] colors = new int[colorModel.getMapSize()];
+            colorModel.getRGBs(colors);
+            return new IndexedSprite(source.getRaster(), colors);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] argb = source.getRGB(0, 0, width, height, null, 0, width);
+
+        Map<Integer, Integer> indices = new HashMap<>();
+        int[] colors = new int[MAX_COLORS];
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            int color = (argb[i] >>> 24) == 0 ? 0 : argb[i];
+            Integer index = indices.get(color);
+            if (index == null) {
+                if (indices.size() == MAX_COLORS) {
+                    return null;
+                }
+                index = indices.size();
+                indices.put(color, index);
+                colors[index] = color;
+            }
+            pixels[i] = (byte) (int) index;
+        }
+
+        int[] palette = new int[indices.size()];
+        System.arraycopy(colors, 0, palette, 0, palette.length);
+        WritableRaster raster = createColorModel(palette).createCompatibleWritableRaster(width, height);
+        raster.setDataElements(0, 0, width, height, pixels);
+        return new IndexedSprite(raster, palette);
+    }
+
+    /**
+     * 包装一个由IndexedSprite创建的图片（例如从缓存中取回时）
+     *
+     * @param image 调色板图片
+     * @return 精灵图，不是8位调色板图片时返回null
+     */
+    public static IndexedSprite wrap(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_INDEXED
+                && !(image.getColorModel() instanceof IndexColorModel
+                && image.getSampleModel().getSampleSize(0) == 8)) {
+            return null;
+        }
+        return fromImage(image);
+    }
+
+    /**
+     * 使用另一个调色板，与当前精灵图共享像素
+     *
+     * @param newPalette 新调色板，颜色数应与当前调色板相同
+     * @return 换色后的精灵图
+     */
+    public IndexedSprite withPalette(int[] newPalette) {
+        return new IndexedSprite(raster, newPalette.clone());
+    }
+
+    /**
+     * 获取闪光配色：调色板色相旋转，像素共享
+     */
+    public synchronized IndexedSprite getShiny() {
+        if (shiny == null) {
+            shiny = withPalette(shiftHue(palette, SHINY_HUE_SHIFT));
+        }
+        return shiny;
+    }
+
+    /**
+     * 旋转调色板的色相，保持透明度不变
+     *
+     * @param palette 调色板（ARGB）
+     * @param shift 色相偏移，0到1之间
+     * @return 新调色板
+     */
+    public static int[] shiftHue(int[] palette, float shift) {
+        int[] result = new int[palette.length];
+        float[] hsb = new float[3];
+        for (int i = 0; i < palette.length; i++) {
+            int argb = palette[i];
+            int alpha = argb >>> 24;
+            if (alpha == 0) {
+                result[i] = argb;
+                continue;
+            }
+            Color.RGBtoHSB((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff, hsb);
+            int rgb = Color.HSBtoRGB((hsb[0] + shift) % 1.0f, hsb[1], hsb[2]);
+            result[i] = (alpha << 24) | (rgb & 0xffffff);
+        }
+        return result;
+    }
+
+    /**
+     * 获取可以直接绘制的图片
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * 获取调色板副本
+     */
+    public int[] getPalette() {
+        return palette.clone();
+    }
+
+    public int getColorCount() {
+        return palette.length;
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    public Raster getRaster() {
+        return raster;
+    }
+
+    /**
+     * 获取占用的字节数：每像素1字节加调色板
+     */
+    public long getMemoryBytes() {
+        return ImageCache.byteSize(image) + palette.length * 4L;
+    }
+}
@@ -1,69 +1,56 @@
 package com.pokemon.game.util;
 
+import com.pokemon.game.input.InputQueue;
+import com.pokemon.game.input.Key;
+
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowFocusListener;
 
 /**
  * 键盘输入处理器
+ * 在AWT事件线程中把按键事件连同时间戳放入InputQueue，游戏线程每个逻辑步取出一次，
+ * 游戏状态通过GameStateManager.getInput()读取。
+ * 窗口失去焦点时收不到松开事件，此时放入一个松开所有按键的事件，避免按键一直处于按住状态
  */
-public class KeyHandler implements KeyListener {
-    
-    // 键盘状态
-    public static boolean UP, DOWN, LEFT, RIGHT, ENTER, SPACE, ESC;
-    
-    // 上一帧键盘状态
-    private boolean[] previousKeys = new boolean[256];
-    // 当前帧键盘状态
-    private boolean[] currentKeys = new boolean[256];
-    
-    public KeyHandler() {
-        UP = DOWN = LEFT = RIGHT = ENTER = SPACE = ESC = false;
-    }
-    
-    public void update() {
-        System.arraycopy(currentKeys, 0, previousKeys, 0, currentKeys.length);
-    }
-    
-    // 检查按键是否刚被按下
-    public boolean isPressed(int keyCode) {
-        return currentKeys[keyCode] && !previousKeys[keyCode];
-    }
-    
-    // 检查按键是否正在被按下
-    public boolean isDown(int keyCode) {
-        return currentKeys[keyCode];
+public class KeyHandler implements KeyListener, WindowFocusListener {
+
+    private final InputQueue queue;
+
+    public KeyHandler(InputQueue queue) {
+        this.queue = queue;
     }
-    
+
     @Override
     public void keyTyped(KeyEvent e) {
         // 不需要实现
     }
-    
+
     @Override
     public void keyPressed(KeyEvent e) {
-        currentKeys[e.getKeyCode()] = true;
-        
-        // 更新方向键状态
-        if(e.getKeyCode() == KeyEvent.VK_UP) UP = true;
-        if(e.getKeyCode() == KeyEvent.VK_DOWN) DOWN = true;
-        if(e.getKeyCode() == KeyEvent.VK_LEFT) LEFT = true;
-        if(e.getKeyCode() == KeyEvent.VK_RIGHT) RIGHT = true;
-        if(e.getKeyCode() == KeyEvent.VK_ENTER) ENTER = true;
-        if(e.getKeyCode() == KeyEvent.VK_SPACE) SPACE = true;
-        if(e.getKeyCode() == KeyEvent.VK_ESCAPE) ESC = true;
+        publish(e, true);
     }
-    
+
     @Override
     public void keyReleased(KeyEvent e) {
-        currentKeys[e.getKeyCode()] = false;
-        
-        // 更新方向键状态
-        if(e.getKeyCode() == KeyEvent.VK_UP) UP = false;
-        if(e.getKeyCode() == KeyEvent.VK_DOWN) DOWN = false;
-        if(e.getKeyCode() == KeyEvent.VK_LEFT) LEFT = false;
-        if(e.getKeyCode() == KeyEvent.VK_RIGHT) RIGHT = false;
-        if(e.getKeyCode() == KeyEvent.VK_ENTER) ENTER = false;
-        if(e.getKeyCode() == KeyEvent.VK_SPACE) SPACE = false;
-        if(e.getKeyCode() == KeyEvent.VK_ESCAPE) ESC = false;
+        publish(e, false);
+    }
+
+    @Override
+    public void windowGainedFocus(WindowEvent e) {
+        // 不需要实现
+    }
+
+    @Override
+    public void windowLostFocus(WindowEvent e) {
+        queue.offerReleaseAll(System.nanoTime());
+    }
+
+    private void publish(KeyEvent e, boolean down) {
+        Key key = Key.fromKeyCode(e.getKeyCode());
+        if (key != null) {
+            queue.offer(key, down, System.nanoTime());
+        }
     }
-} 
\ No newline at end of file
+}
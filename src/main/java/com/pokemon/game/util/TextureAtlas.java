@@ -0,0 +1,377 @@
+package com.pokemon.game.util;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 纹理图集
+ * 把大量小精灵图合并到少数几张图集上，运行时按资源路径查找对应的区域。
+ * 首次运行时由AtlasPacker打包并写入缓存目录（默认target/atlas，可通过 -Dpokemon.atlas.dir 调整），
+ * 之后只要源图片没有变化就直接读取缓存，几次解码代替几十次
+ */
+public class TextureAtlas {
+
+    // 预定义的图集：道具（精灵球、重要道具）的小图标
+    public static final String ITEMS = "items";
+
+    private static final Definition[] DEFINITIONS = {
+        new Definition(ITEMS, 64, "image/item/balls", "image/item/key_items")
+    };
+
+    // 缓存目录
+    private static final String CACHE_DIR = System.getProperty("pokemon.atlas.dir", "target/atlas");
+
+    // 索引文件格式版本，格式变化时旧缓存自动失效
+    private static final int INDEX_VERSION = 1;
+
+    private static final Map<String, TextureAtlas> loaded = new HashMap<>();
+
+    private final String name;
+    private final List<BufferedImage> sheets;
+    private final Map<String, Region> regions;
+
+    TextureAtlas(String name, List<BufferedImage> sheets, Map<String, Region> regions) {
+        this.name = name;
+        this.sheets = sheets;
+        this.regions = regions;
+    }
+
+    /**
+     * 获取预定义的图集，首次调用时加载或打包
+     *
+     * @param name 图集名称，如 TextureAtlas.ITEMS
+     * @return 图集，源图片和缓存都不存在时返回null
+     */
+    public static synchronized TextureAtlas get(String name) {
+        if (loaded.containsKey(name)) {
+            return loaded.get(name);
+        }
+
+        TextureAtlas atlas = null;
+        for (Definition definition : DEFINITIONS) {
+            if (definition.name.equals(name)) {
+                atlas = load(definition, false);
+            }
+        }
+        loaded.put(name, atlas);
+        return atlas;
+    }
+
+    /**
+     * 加载图集：缓存有效时直接读取，否则重新打包并写入缓存
+     *
+     * @param definition 图集定义
+     * @param forceRebuild 是否忽略缓存强制重新打包
+     * @return 图集，失败时返回null
+     */
+    static TextureAtlas load(Definition definition, boolean forceRebuild) {
+        File dir = new File(CACHE_DIR);
+        List<File> sources = definition.listSources();
+        File indexFile = new File(dir, definition.name + ".index");
+
+        // 从jar运行时没有源目录，只能使用已有的缓存
+        if (!forceRebuild && (sources.isEmpty() || !isStale(indexFile, sources))) {
+            try {
+                TextureAtlas atlas = read(dir, definition.name);
+                if (atlas != null) {
+                    return atlas;
+                }
+            } catch (IOException e) {
+                System.err.println("无法读取图集缓存: " + definition.name);
+                e.printStackTrace();
+            }
+        }
+
+        if (sources.isEmpty()) {
+            System.err.println("图集没有可用的源图片: " + definition.name);
+            return null;
+        }
+
+        long start = System.nanoTime();
+        AtlasPacker packer = new AtlasPacker();
+        for (File source : sources) {
+            try {
+                BufferedImage image = ImageIO.read(source);
+                if (image == null) {
+                    continue;
+                }
+                if (image.getWidth() > definition.maxSpriteSize || image.getHeight() > definition.maxSpriteSize) {
+                    // 大图单独加载，放进图集只会浪费空间
+                    continue;
+                }
+                packer.add(definition.resourcePath(source), image);
+            } catch (IOException e) {
+                System.err.println("无法加载图片: " + source);
+            }
+        }
+
+        TextureAtlas atlas = packer.pack(definition.name);
+        System.out.printf("打包图集 %s: %d个精灵, %d张图集, 耗时%.1fms%n", definition.name,
+                atlas.getRegionCount(), atlas.getSheetCount(), (System.nanoTime() - start) / 1000000.0);
+
+        try {
+            atlas.write(dir, newestModified(sources), sources.size());
+        } catch (IOException e) {
+            // 写缓存失败不影响本次运行
+            System.err.println("无法写入图集缓存: " + definition.name);
+            e.printStackTrace();
+        }
+        return atlas.toCompatible();
+    }
+
+    /**
+     * 把图集转换为屏幕兼容格式
+     */
+    private TextureAtlas toCompatible() {
+        List<BufferedImage> compatible = new ArrayList<>(sheets.size());
+        for (BufferedImage sheet : sheets) {
+            compatible.add(CompatibleImages.toCompatibleImage(sheet));
+        }
+        return new TextureAtlas(name, Collections.unmodifiableList(compatible), regions);
+    }
+
+    /**
+     * 源图片数量或最新修改时间与索引中记录的不一致时，缓存失效
+     */
+    private static boolean isStale(File indexFile, List<File> sources) {
+        if (!indexFile.exists()) {
+            return true;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String[] header = reader.readLine().split(" ");
+            return Integer.parseInt(header[1]) != INDEX_VERSION
+                    || Integer.parseInt(header[3]) != sources.size()
+                    || Long.parseLong(header[4]) != newestModified(sources);
+        } catch (IOException | RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static long newestModified(List<File> sources) {
+        long newest = 0;
+        for (File source : sources) {
+            newest = Math.max(newest, source.lastModified());
+        }
+        return newest;
+    }
+
+    /**
+     * 写入图集图片和索引
+     * 索引首行：atlas 版本 图集张数 源图片数 源图片最新修改时间
+     * 之后每行一个区域：资源路径 图集序号 x y 宽 高
+     */
+    private void write(File dir, long sourcesModified, int sourceCount) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建目录: " + dir);
+        }
+
+        for (int i = 0; i < sheets.size(); i++) {
+            ImageIO.write(sheets.get(i), "png", new File(dir, name + "_" + i + ".png"));
+        }
+
+        // 索引最后写入，中途失败时缓存仍视为无效
+        try (BufferedWriter writer = Files.newBufferedWriter(new File(dir, name + ".index").toPath(),
+                StandardCharsets.UTF_8)) {
+            writer.write("atlas " + INDEX_VERSION + " " + sheets.size() + " " + sourceCount + " " + sourcesModified);
+            writer.newLine();
+            for (Map.Entry<String, Region> entry : regions.entrySet()) {
+                Region r = entry.getValue();
+                writer.write(entry.getKey() + " " + r.sheet + " " + r.x + " " + r.y + " " + r.width + " " + r.height);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * 读取缓存的图集
+     *
+     * @return 图集，缓存不存在时返回null
+     */
+    private static TextureAtlas read(File dir, String name) throws IOException {
+        File indexFile = new File(dir, name + ".index");
+        if (!indexFile.exists()) {
+            return null;
+        }
+
+        List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+        String[] header = lines.get(0).split(" ");
+        if (Integer.parseInt(header[1]) != INDEX_VERSION) {
+            return null;
+        }
+
+        int sheetCount = Integer.parseInt(header[2]);
+        List<BufferedImage> sheets = new ArrayList<>(sheetCount);
+        for (int i = 0; i < sheetCount; i++) {
+            BufferedImage sheet = ImageIO.read(new File(dir, name + "_" + i + ".png"));
+            if (sheet == null) {
+                return null;
+            }
+            sheets.add(CompatibleImages.toCompatibleImage(sheet));
+        }
+
+        Map<String, Region> regions = new LinkedHashMap<>();
+        for (int i = 1; i < lines.size(); i++) {
+            String[] parts = lines.get(i).split(" ");
+            if (parts.length != 6) {
+                continue;
+            }
+            regions.put(parts[0], new Region(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5])));
+        }
+        return new TextureAtlas(name, Collections.unmodifiableList(sheets), regions);
+    }
+
+    /**
+     * 按资源路径查找精灵图
+     * 返回的图片与图集共享像素数据，绘制时使用的是同一张纹理
+     *
+     * @param path 资源路径，如 image/item/balls/poke_ball.png
+     * @return 精灵图，不在图集中时返回null
+     */
+    public BufferedImage getImage(String path) {
+        Region region = getRegion(path);
+        if (region == null) {
+            return null;
+        }
+        return sheets.get(region.sheet).getSubimage(region.x, region.y, region.width, region.height);
+    }
+
+    /**
+     * 直接从图集绘制精灵图
+     *
+     * @param g 图形对象
+     * @param path 资源路径
+     * @param x 目标x坐标
+     * @param y 目标y坐标
+     * @return 是否绘制成功
+     */
+    public boolean draw(Graphics2D g, String path, int x, int y) {
+        Region region = getRegion(path);
+        if (region == null) {
+            return false;
+        }
+        g.drawImage(sheets.get(region.sheet),
+                x, y, x + region.width, y + region.height,
+                region.x, region.y, region.x + region.width, region.y + region.height, null);
+        return true;
+    }
+
+    public Region getRegion(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return regions.get(path);
+    }
+
+    public boolean contains(String path) {
+        return getRegion(path) != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSheetCount() {
+        return sheets.size();
+    }
+
+    public BufferedImage getSheet(int index) {
+        return sheets.get(index);
+    }
+
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * 重新打包所有预定义的图集，可在构建时运行以预先生成缓存
+     * 运行方式: mvn compile exec:java -Dexec.mainClass="com.pokemon.game.util.TextureAtlas"
+     */
+    public static void main(String[] args) {
+        for (Definition definition : DEFINITIONS) {
+            load(definition, true);
+        }
+    }
+
+    /**
+     * 图集中的一个区域
+     */
+    public static final class Region {
+
+        public final int sheet;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        Region(int sheet, int x, int y, int width, int height) {
+            this.sheet = sheet;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * 图集定义：名称、源目录和可打包的最大精灵尺寸
+     */
+    static final class Definition {
+
+        private static final String RESOURCE_ROOT = "src/main/resources/";
+
+        final String name;
+        final int maxSpriteSize;
+        final String[] sourceDirs;
+
+        Definition(String name, int maxSpriteSize, String... sourceDirs) {
+            this.name = name;
+            this.maxSpriteSize = maxSpriteSize;
+            this.sourceDirs = sourceDirs;
+        }
+
+        /**
+         * 列出源目录下的所有PNG，按路径排序保证打包结果稳定
+         */
+        List<File> listSources() {
+            List<File> files = new ArrayList<>();
+            for (String sourceDir : sourceDirs) {
+                Path dir = Paths.get(RESOURCE_ROOT + sourceDir);
+                if (!Files.isDirectory(dir)) {
+                    continue;
+                }
+                try (Stream<Path> stream = Files.walk(dir)) {
+                    files.addAll(stream.filter(p -> p.toString().endsWith(".png"))
+                            .sorted()
+                            .map(Path::toFile)
+                            .collect(Collectors.toList()));
+                } catch (IOException e) {
+                    System.err.println("无法读取目录: " + dir);
+                }
+            }
+            return files;
+        }
+
+        String resourcePath(File source) {
+            Path root = Paths.get(RESOURCE_ROOT).toAbsolutePath();
+            return root.relativize(source.toPath().toAbsolutePath()).toString().replace(File.separatorChar, '/');
+        }
+    }
+}